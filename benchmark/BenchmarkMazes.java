@@ -0,0 +1,39 @@
+package benchmark;
+
+import mazegen.MazeGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the seeded mazes the benchmarks load, so every run and every benchmark measures exactly
+ * the same mazes. Mazes are generated with Prim's algorithm, which gives the many short branches
+ * and dead ends typical of hand drawn mazes, and are written to the temporary directory once per
+ * size and seed.
+ */
+public class BenchmarkMazes {
+
+    /** The seed every benchmark maze is generated with. */
+    public static final long SEED = 20240501L;
+
+    /**
+     * Gets the path of the text maze file of the given size, generating it if it doesn't exist.
+     *
+     * @param size The width and height of the maze, an odd number of at least 5.
+     * @return The path of the maze file.
+     */
+    public static String textMaze(int size) {
+        File file = new File(System.getProperty("java.io.tmpdir"),
+                "mazegame-bench-" + size + "-" + SEED + ".txt");
+        if (!file.isFile()) {
+            try {
+                new MazeGenerator(MazeGenerator.algorithm("prim"), size, size, SEED)
+                        .writeText(file.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return file.getPath();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import io.FileLoader;
+import mazecore.Maze;
+import mazecore.MazeContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import playercore.MoveMap;
+import playercore.PackedMoveMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading a maze file and building its move map, the work done before a game starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+    /** The width and height of the maze. */
+    @Param({"101", "1001", "4001"})
+    public int size;
+
+    /** The path of the maze file. */
+    private String filename;
+
+    /**
+     * Generates the maze file, and loads it as the current context for the move map benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        filename = BenchmarkMazes.textMaze(size);
+        Maze.makeMaze(filename);
+    }
+
+    /**
+     * Reads and validates the maze file.
+     *
+     * @return The maze, so it isn't optimised away.
+     * @throws Exception If the maze file can't be loaded.
+     */
+    @Benchmark
+    public char[][] fileLoaderLoad() throws Exception {
+        return new FileLoader().load(filename);
+    }
+
+    /**
+     * Loads the maze file into a new current context.
+     *
+     * @return The new context, so it isn't optimised away.
+     */
+    @Benchmark
+    public MazeContext mazeMakeMaze() {
+        Maze.makeMaze(filename);
+        return MazeContext.getCurrent();
+    }
+
+    /**
+     * Builds the move map of the current context.
+     *
+     * @return The move map, so it isn't optimised away.
+     */
+    @Benchmark
+    public PackedMoveMap moveMapMakeMoveMap() {
+        MoveMap.makeMoveMap();
+        return MoveMap.getPackedMap();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import mazecore.CheckPosition;
+import mazecore.Maze;
+import mazecore.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import playercore.MoveMap;
+import playercore.Movement;
+import playercore.PastMoves;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per move work of the game: checking the neighbours of a position, which is done
+ * for every cell drawn, and moving the player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerBenchmark {
+
+    /** The number of positions cycled through by the neighbour benchmarks. */
+    private static final int POSITION_COUNT = 1 << 12;
+
+    /** The width and height of the maze. */
+    @Param({"101", "1001"})
+    public int size;
+
+    /** Random positions in the maze, cycled through so no single position stays in cache. */
+    private Position[] positions;
+
+    /** The index of the next position to check. */
+    private int next;
+
+    /** The direction from the start to an open neighbour, and the direction back. */
+    private char[] directions;
+
+    /** The number of moves made so far. */
+    private int moves;
+
+    /**
+     * Loads the maze as the current context, picks the positions to check and finds a pair of
+     * moves the player can repeat forever.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Maze.makeMaze(BenchmarkMazes.textMaze(size));
+        MoveMap.makeMoveMap();
+        PastMoves.pastMovesMap();
+
+        SplittableRandom random = new SplittableRandom(BenchmarkMazes.SEED);
+        positions = new Position[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            positions[i] = new Position(random.nextInt(1, size - 1), random.nextInt(1, size - 1));
+        }
+
+        // The start is always in a room, and every room has a passage right or down.
+        Position start = Maze.getMazeStartPos();
+        boolean right = MoveMap.validMove(new Position(start.getX() + 1, start.getY()));
+        directions = right ? new char[] {'d', 'a'} : new char[] {'s', 'w'};
+    }
+
+    /**
+     * Checks the four neighbours of the next position.
+     *
+     * @return The neighbours, so they aren't optimised away.
+     */
+    @Benchmark
+    public boolean[] checkPositionGet4() {
+        return CheckPosition.get(positions[next++ & (POSITION_COUNT - 1)], 4);
+    }
+
+    /**
+     * Checks the eight neighbours of the next position.
+     *
+     * @return The neighbours, so they aren't optimised away.
+     */
+    @Benchmark
+    public boolean[] checkPositionGet8() {
+        return CheckPosition.get(positions[next++ & (POSITION_COUNT - 1)], 8);
+    }
+
+    /**
+     * Moves the player back and forth between the start and its open neighbour.
+     *
+     * @return The old and new positions, so they aren't optimised away.
+     */
+    @Benchmark
+    public int[] movementMove() {
+        return Movement.move(directions[moves++ & 1]);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import mazecore.Maze;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import playercore.MazeSolver;
+import playercore.MoveMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks solving a maze with breadth first search, including converting the path found back
+ * to positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+    /** The width and height of the maze. */
+    @Param({"101", "1001", "4001"})
+    public int size;
+
+    /** The solver of the current context. */
+    private MazeSolver solver;
+
+    /**
+     * Loads the maze as the current context and builds its move map.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Maze.makeMaze(BenchmarkMazes.textMaze(size));
+        MoveMap.makeMoveMap();
+        solver = new MazeSolver();
+    }
+
+    /**
+     * Solves the maze from its start to its end.
+     *
+     * @return Whether the maze was solved, so the solve isn't optimised away.
+     */
+    @Benchmark
+    public boolean mazeSolverBfsSolve() {
+        solver.bfsSolve();
+        return solver.isMazeSolvable();
+    }
+}
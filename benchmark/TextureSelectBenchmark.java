@@ -0,0 +1,72 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks selecting the texture of a cell from its eight neighbours, done for every wall and
+ * path drawn by the GUI. Every one of the 256 neighbour masks is cycled through.
+ * <p>
+ * The texture selector is private to the GUI, so it is looked up reflectively once and called
+ * through a constant method handle, which the JIT compiles to a direct call.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextureSelectBenchmark {
+
+    /** The texture selector, AssetLoader.TextureSelect.selectTexture(int, String). */
+    private static final MethodHandle SELECT_TEXTURE = selectTextureHandle();
+
+    /** The type of texture selected, either wall or path. */
+    @Param({"wall", "path"})
+    public String type;
+
+    /** The neighbour mask of the next texture selected. */
+    private int next;
+
+    /**
+     * Selects the texture for the next combination of neighbours.
+     *
+     * @return The name of the texture, so it isn't optimised away.
+     * @throws Throwable If the selector throws.
+     */
+    @Benchmark
+    public String selectTexture() throws Throwable {
+        return (String) SELECT_TEXTURE.invokeExact(next++ & 255, type);
+    }
+
+    /**
+     * Looks up the texture selector.
+     *
+     * @return A method handle for the texture selector.
+     */
+    private static MethodHandle selectTextureHandle() {
+        try {
+            Class<?> textureSelect = Class.forName("gui.AssetLoader$TextureSelect");
+            Method method = textureSelect.getDeclaredMethod("selectTexture", int.class,
+                    String.class);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
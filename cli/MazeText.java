@@ -6,9 +6,14 @@ import playercore.MazeSolver;
 import playercore.Movement;
 import playercore.PastMoves;
 import playercore.PlayerPosition;
+import playercore.SolutionPlayback;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static playercore.PastMoves.pastMovesMap;
 
@@ -20,6 +25,12 @@ public class MazeText {
     /** A boolean toggle to determine whether to highlight the path or not. */
     private static Boolean highlightToggle = false;
 
+    /** How long to wait for the maze solver before assuming the maze is not solvable. */
+    private static final int MAZE_SOLVE_TIMEOUT_SECONDS = 10;
+
+    /** How long each tick of the solution playback lasts, in milliseconds. */
+    private static final long PLAYBACK_TICK_MILLIS = 100;
+
     /**
      * The main method of the CLI controller which runs the game.
      */
@@ -27,26 +38,21 @@ public class MazeText {
         // Initialises the past move map, so it is ready for later use.
         pastMovesMap();
 
-        // Starts the MazeSolver thread and tells it the game is being run through the CLI.
+        // Starts the MazeSolver in the background and tells it the game is being run through
+        // the CLI, and to build a next move field so the player can be moved to the end from
+        // anywhere.
         MazeSolver mazeSolver = new MazeSolver();
         mazeSolver.setGuiSolve(false);
-        Thread mazeSolverThread = new Thread(mazeSolver);
-        // Sets the thread to be a background thread, so it stops when the main thread stops.
-        mazeSolverThread.setDaemon(true);
-        mazeSolverThread.start();
-
-        // Starts a timer, waits and if the maze is not solved within 10 seconds, the program will
-        // continue and assume the maze is not solvable.
-        int mazeSolveTimer = 0;
-        while (!mazeSolver.isMazeSolvable() && mazeSolveTimer < 10) {
-            try {
-                mazeSolveTimer++;
-                System.out.println("Checking if maze is solvable...");
-                Thread.sleep(1000);
-            } catch (InterruptedException ie) {
-                System.err.println("Something went wrong while waiting to see if"
-                        + " the maze is solvable: " + ie.getMessage());
-            }
+        mazeSolver.setNextMoveFieldMode(true);
+        System.out.println("Checking if maze is solvable...");
+
+        // Waits for the solver to finish, if the maze is not solved within 10 seconds, the
+        // solver is stopped and the program continues assuming the maze is not solvable.
+        try {
+            mazeSolver.solveAsync(MAZE_SOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS).join();
+        } catch (CompletionException | CancellationException e) {
+            System.err.println("Something went wrong while waiting to see if"
+                    + " the maze is solvable: " + e.getMessage());
         }
 
         // Prints a message if the maze is solvable and an error if it isn't.
@@ -72,8 +78,7 @@ public class MazeText {
                 } else if (input == 'w' || input == 'a' || input == 's' || input == 'd') {
                     textMove(input);
                 } else if (input == 'q') {
-                    mazeSolver.move();
-                    Display.displayMaze();
+                    playSolution(mazeSolver, reader);
                 } else {
                     System.err.println("Invalid input."
                             + " Use WASD to navigate and the H key to toggle path highlighting");
@@ -88,6 +93,42 @@ public class MazeText {
         }
     }
 
+    /**
+     * Plays back the maze solver moving the player to the end, a few steps and a redraw of the
+     * maze each tick. Controls typed while it plays are read between ticks without waiting.
+     *
+     * @param mazeSolver The solver that moves the player.
+     * @param reader The reader of the player's input.
+     * @throws IOException If the player's input can't be read.
+     * @throws InterruptedException If the thread is interrupted between ticks.
+     */
+    private static void playSolution(MazeSolver mazeSolver, BufferedReader reader)
+            throws IOException, InterruptedException {
+        SolutionPlayback playback = new SolutionPlayback(mazeSolver);
+        System.out.println("Solving. Enter p to pause or resume, + or - to change the speed.");
+        while (playback.advance()) {
+            if (!playback.isPaused()) {
+                Display.displayMaze();
+            }
+
+            // Handles any controls the player has entered since the last tick.
+            while (reader.ready()) {
+                String line = reader.readLine();
+                if (line == null || line.isEmpty()) {
+                    continue;
+                }
+                switch (line.charAt(0)) {
+                    case 'p' -> playback.togglePause();
+                    case '+' -> playback.faster();
+                    case '-' -> playback.slower();
+                    default -> System.err.println("Invalid input."
+                            + " Use p to pause or resume and + or - to change the speed");
+                }
+            }
+            Thread.sleep(PLAYBACK_TICK_MILLIS);
+        }
+    }
+
     /**
      * Moves the player in the given direction in the CLI.
      *
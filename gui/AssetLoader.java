@@ -2,7 +2,6 @@ package gui;
 
 import javafx.animation.AnimationTimer;
 import javafx.scene.control.Button;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.StackPane;
 import javafx.scene.media.Media;
@@ -23,7 +22,6 @@ import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -80,17 +78,66 @@ public class AssetLoader {
     /** A boolean toggle to check if the assets are missing, defaults to true. */
     private static boolean assetsMissing = true;
 
+    /** Whether the texture atlas has been looked for, so it is only loaded once. */
+    private static boolean atlasChecked = false;
+
+    /** Whether a texture atlas matching its checksum has been loaded. */
+    private static boolean atlasLoaded = false;
+
     /** The expected MD5 Checksum of the assets' folder. */
     private static final String EXPECTED_ASSETS_HASH = "4e59760ca1e70e242ab2cd81c711d640";
 
+    /** The sound files, which are needed alongside the textures in the atlas. */
+    private static final String[] SOUND_FILES = {
+        "assets/sound/music.mp3", "assets/sound/invalid.mp3", "assets/sound/win.mp3"};
+
     /**
-     * Uses the hashDirectory method to compare the MD5 Checksum of the current assets folder
-     * to the expected checksum. If they match, the assetsMissing toggle is set to false.
+     * Checks the assets are present, setting the assetsMissing toggle to false if they are. If
+     * the texture atlas loads and matches its own checksum, only the atlas is read and the sound
+     * files just need to exist. Otherwise, the hashDirectory method is used to compare the MD5
+     * Checksum of the current assets folder to the expected checksum, and if they match the
+     * textures are packed into an atlas so later starts only need to read the atlas.
      */
     public static void checkAssets() {
+        // Loads the texture atlas the first time, if there is one, so the textures are all
+        // decoded from a single image.
+        if (!atlasChecked) {
+            atlasChecked = true;
+            atlasLoaded = TextureAtlas.load(TextureAtlas.DEFAULT_FOLDER);
+        }
+        if (atlasLoaded && soundsPresent()) {
+            assetsMissing = false;
+            return;
+        }
+
         if (DirectoryHash.hashDirectory("assets").equals(EXPECTED_ASSETS_HASH)) {
             assetsMissing = false;
+            if (!atlasLoaded) {
+                try {
+                    TextureAtlas.pack(new File("assets/textures"),
+                            new File(TextureAtlas.DEFAULT_FOLDER));
+                    atlasLoaded = TextureAtlas.load(TextureAtlas.DEFAULT_FOLDER);
+                } catch (IOException e) {
+                    // The textures still load from their own files without an atlas.
+                    System.err.println("Texture atlas cannot be packed because: "
+                            + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks every sound file exists, without reading them.
+     *
+     * @return True if every sound file exists, false otherwise.
+     */
+    private static boolean soundsPresent() {
+        for (String soundFile : SOUND_FILES) {
+            if (!new File(soundFile).isFile()) {
+                return false;
+            }
         }
+        return true;
     }
 
     /**
@@ -128,9 +175,7 @@ public class AssetLoader {
     protected static void addGrass(StackPane stackPane) {
         // Randomly selects the texture for the path at the given position.
         if (!assetsMissing) {
-            grassTexture = new ImagePattern(
-                    new Image("file:assets/textures/grass/grass0"
-                            + (int) (Math.random() * 9) + ".png"));
+            grassTexture = TextureCache.getPattern("grass/grass0" + (int) (Math.random() * 9));
         } else {
             grassTexture = null;
         }
@@ -153,30 +198,19 @@ public class AssetLoader {
         // If the assets aren't missing, loads the textures.
         if (!assetsMissing) {
             try {
-                wallTexture = new ImagePattern(
-                        new Image("file:assets/textures/wall.png"));
-                playerLeftTexture = new ImagePattern(new Image(
-                        "file:assets/textures/player_left.png"));
-                playerRightTexture = new ImagePattern(new Image(
-                        "file:assets/textures/player_right.png"));
-                startFlagTexture0 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/sFlag0.png"));
-                startFlagTexture1 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/sFlag1.png"));
-                startFlagTexture2 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/sFlag2.png"));
-                startFlagTexture3 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/sFlag3.png"));
-                endFlagTexture0 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/eFlag0.png"));
-                endFlagTexture1 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/eFlag1.png"));
-                endFlagTexture2 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/eFlag2.png"));
-                endFlagTexture3 = new ImagePattern(new Image(
-                        "file:assets/textures/flag/eFlag3.png"));
-                restartTexture = new ImageView(new Image(
-                        "file:assets/textures/restart.png"));
+                // Textures come from the cache, so reloading the game doesn't decode them again.
+                wallTexture = TextureCache.getPattern("wall");
+                playerLeftTexture = TextureCache.getPattern("player_left");
+                playerRightTexture = TextureCache.getPattern("player_right");
+                startFlagTexture0 = TextureCache.getPattern("flag/sFlag0");
+                startFlagTexture1 = TextureCache.getPattern("flag/sFlag1");
+                startFlagTexture2 = TextureCache.getPattern("flag/sFlag2");
+                startFlagTexture3 = TextureCache.getPattern("flag/sFlag3");
+                endFlagTexture0 = TextureCache.getPattern("flag/eFlag0");
+                endFlagTexture1 = TextureCache.getPattern("flag/eFlag1");
+                endFlagTexture2 = TextureCache.getPattern("flag/eFlag2");
+                endFlagTexture3 = TextureCache.getPattern("flag/eFlag3");
+                restartTexture = new ImageView(TextureCache.getImage("restart"));
             } catch (Exception e) {
                 // If any errors occur while loading the textures,
                 // sets the assetsMissing flag to true and call the method again.
@@ -270,10 +304,9 @@ public class AssetLoader {
             Player2D.getPlayer().setFill(Color.BLUE);
         }
 
-        // Adds the player to the stack pane at the start position.
-        Maze2D.getCells()[
-                PlayerPosition.get().getX()][PlayerPosition.get().getY()]
-                .getChildren().add(Player2D.getPlayer());
+        // Places the player over the start position.
+        Maze2D.placePlayer(new int[]{PlayerPosition.get().getX(), PlayerPosition.get().getY()},
+                false);
     }
 
     /**
@@ -432,91 +465,66 @@ public class AssetLoader {
      */
     protected static class TextureSelect {
         /**
-         * Takes in a boolean array and returns a string of 1s and 0s that represent
-         * the matching texture file. If type is "wall", the boolean array is inverted and
-         * the wall texture is selected and returned based on the matching bitMap. Otherwise,
-         * the boolean is just converted to a string and returned.
+         * Returns the name of the texture file matching the neighbours of a position. If type is
+         * "wall", the texture is read from the wall texture table, indexed by the neighbours that
+         * are walls. Otherwise, the name is a string of 1s and 0s for whether the position above,
+         * left, below and right are paths.
          *
-         * @param possibleMoves The boolean array to be converted.
+         * @param openMask The neighbour mask of the position, see {@link CheckPosition#mask}.
          * @param type The type of texture to be returned (as a String).
+         * @return The name of the texture file, or an empty string if no wall texture matches.
          */
-        private static String selectTexture(boolean[] possibleMoves, String type) {
-            // Initialises the matchingTexture variable so if no match is found an empty string
-            // is returned.
-            String matchingTexture = "";
-
-            // If type is "wall", inverts the possibleMoves array, then converts it to a string of
-            // 1s and 0s, then checks if it matches any of the wallBitMaps. If it does, sets
-            // matchingTexture to the texture name of the matching bitMap.
+        private static String selectTexture(int openMask, String type) {
             if (type.equals("wall")) {
-                for (int i = 0; i < possibleMoves.length; i++) {
-                    possibleMoves[i] = !possibleMoves[i];
-                }
-                int[] ruleMatch = new int[8];
-                Arrays.fill(ruleMatch, 0);
-                for (int i = 0; i < possibleMoves.length; i++) {
-                    if (possibleMoves[i]) {
-                        ruleMatch[i] = 1;
-                    } else {
-                        ruleMatch[i] = 0;
-                    }
-                }
-                for (TextureBitMap bitMap : wallBitMaps) {
-                    for (int i = 0; i < 8; i++) {
-                        if (Objects.equals(bitMap.conditions[i], ruleMatch[i])
-                                || -1 == bitMap.conditions[i]) {
-                            if (i == 7) {
-                                matchingTexture = bitMap.textureName;
-                            }
-                        } else {
-                            break;
-                        }
-                    }
-                }
-                return matchingTexture;
-            } else {
-                boolean[] reducedMoves = new boolean[4];
-                for (int i = 0; i < possibleMoves.length; i++) {
-                    if (i % 2 == 0) {
-                        reducedMoves[(i / 2)] = possibleMoves[i];
-                    }
-                }
-                return arrayToString(reducedMoves);
+                return wallTextures[~openMask & 0xFF];
             }
+            return pathTextures[((openMask & CheckPosition.UP) != 0 ? 8 : 0)
+                    | ((openMask & CheckPosition.LEFT) != 0 ? 4 : 0)
+                    | ((openMask & CheckPosition.DOWN) != 0 ? 2 : 0)
+                    | ((openMask & CheckPosition.RIGHT) != 0 ? 1 : 0)];
         }
 
         /**
-         * A helper method to convert a boolean array to a string.
+         * Gets the id of the texture for the given position and type, see {@link TextureCache}.
          *
-         * @param array The boolean array that will be converted.
-         * @return A string representation of the given boolean array.
+         * @param position The position to get the texture for.
+         * @param type The type of texture, "wall" or "path".
+         * @return The id of the texture, or null if no wall texture matches the position.
          */
-        private static String arrayToString(boolean[] array) {
-            StringBuilder result = new StringBuilder();
-            for (boolean b : array) {
-                if (b) {
-                    result.append("1");
-                } else {
-                    result.append("0");
-                }
-            }
-            return result.toString();
+        protected static String textureId(Position position, String type) {
+            return textureId(position.getX(), position.getY(), type);
         }
 
         /**
-         * Loads the texture for the given position and type.
+         * Gets the id of the texture for the given coordinates and type, without needing a
+         * Position, see {@link #textureId(Position, String)}.
+         *
+         * @param x The x coordinate to get the texture for.
+         * @param y The y coordinate to get the texture for.
+         * @param type The type of texture, "wall" or "path".
+         * @return The id of the texture, or null if no wall texture matches the position.
+         */
+        protected static String textureId(int x, int y, String type) {
+            String textureNum = selectTexture(CheckPosition.mask(x, y), type);
+            return textureNum.isEmpty() ? null : type + "/" + textureNum;
+        }
+
+        /**
+         * Loads the texture for the given position and type. Every position with the same
+         * texture shares one ImagePattern from the {@link TextureCache}.
          *
          * @param position The position to load the texture at.
          * @param type The type of texture to load.
-         * @return The ImagePattern for the texture.
+         * @return The ImagePattern for the texture, or null if no texture matches the position.
          */
         protected static ImagePattern loadImage(Position position, String type) {
-            String textureNum = selectTexture(CheckPosition.get(position, 8), type);
-            StringBuilder textureFilePath = new StringBuilder("file:assets/textures");
-            textureFilePath.append("/").append(type).append("/").append(textureNum).append(".png");
-
+            // A few unusual walls match no texture, which doesn't mean the assets are missing.
+            String id = textureId(position, type);
+            if (id == null) {
+                return null;
+            }
             try {
-                return new ImagePattern(new Image(textureFilePath.toString()));
+                return TextureCache.getPattern(id);
             } catch (Exception e) {
                 // If any exceptions occur while trying to load, assume the assets are missing
                 // and return null.
@@ -588,6 +596,62 @@ public class AssetLoader {
             new TextureBitMap("hedge45", new int[] {1, 1, 1, -1, 0, -1, 1, 1}),
             new TextureBitMap("hedge46", new int[] {1, 1, 1, -1, 0, -1, 1, 0}),
             new TextureBitMap("hedge47", new int[] {1, -1, 1, -1, 0, -1, 0, -1})};
+
+        /**
+         * The name of the wall texture for every combination of neighbouring walls, indexed by a
+         * neighbour mask of walls rather than paths. Compiled once from wallBitMaps, so selecting
+         * a wall texture is a single array read.
+         */
+        private static final String[] wallTextures = compileWallTextures();
+
+        /**
+         * The name of the path texture for every combination of neighbouring paths, indexed by
+         * the up, left, down and right bits from highest to lowest.
+         */
+        private static final String[] pathTextures = compilePathTextures();
+
+        /**
+         * Compiles wallBitMaps into a table of the matching texture for all 256 combinations of
+         * neighbouring walls. Where more than one bitmap matches, the last one in wallBitMaps is
+         * used, and combinations no bitmap matches have an empty string.
+         *
+         * @return The wall texture table.
+         */
+        private static String[] compileWallTextures() {
+            String[] textures = new String[256];
+            for (int wallMask = 0; wallMask < 256; wallMask++) {
+                textures[wallMask] = "";
+                for (TextureBitMap bitMap : wallBitMaps) {
+                    boolean matches = true;
+                    for (int i = 0; i < 8 && matches; i++) {
+                        int wall = (wallMask >>> i) & 1;
+                        matches = bitMap.conditions[i] == -1 || bitMap.conditions[i] == wall;
+                    }
+                    if (matches) {
+                        textures[wallMask] = bitMap.textureName;
+                    }
+                }
+            }
+            return textures;
+        }
+
+        /**
+         * Builds the table of path texture names, each a string of 1s and 0s for whether the
+         * position above, left, below and right are paths.
+         *
+         * @return The path texture table.
+         */
+        private static String[] compilePathTextures() {
+            String[] textures = new String[16];
+            for (int bits = 0; bits < 16; bits++) {
+                StringBuilder name = new StringBuilder();
+                for (int shift = 3; shift >= 0; shift--) {
+                    name.append((bits >>> shift) & 1);
+                }
+                textures[bits] = name.toString();
+            }
+            return textures;
+        }
     }
 
     /**
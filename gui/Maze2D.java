@@ -1,5 +1,6 @@
 package gui;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
@@ -11,6 +12,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
@@ -22,12 +24,17 @@ import main.Main;
 import mazecore.Maze;
 import mazecore.Position;
 import playercore.MazeSolver;
+import playercore.MoveMap;
 import playercore.PastMoves;
 import playercore.PlayerPosition;
+import playercore.SolutionPlayback;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import static playercore.PastMoves.pastMovesMap;
 
@@ -59,9 +66,42 @@ public class Maze2D extends Application {
     /** The width of the maze. */
     private static int MazeWidth = Maze.getMazeWidth();
 
-    /** The 2D array of stack panes that make up the maze. */
+    /** The 2D array of stack panes that make up the maze, null when drawn on a canvas. */
     private static StackPane[][] cells = new StackPane[MazeWidth][MazeHeight];
 
+    /**
+     * The number of cells from which a maze that fits on screen is drawn on a canvas instead of a
+     * cell grid, as at around four nodes a cell the grid takes seconds to lay out. Mazes that
+     * don't fit on screen always use a canvas, in viewport mode. A maze this large, such as the
+     * 103x103 large maze, only fits with readable cells on a tall screen, for example a 4K screen
+     * at about 20 pixels a cell, so on most screens it is in viewport mode anyway.
+     */
+    private static final int CANVAS_RENDER_THRESHOLD = 10_000;
+
+    /** The canvas the maze is drawn on, null when it is made of a cell grid. */
+    private static MazeCanvas mazeCanvas = null;
+
+    /** The width of each cell before it is shrunk to fit the screen, the width of the textures. */
+    private static final int DEFAULT_CELL_WIDTH = 16;
+
+    /** The height of each cell before it is shrunk to fit the screen, the textures' height. */
+    private static final int DEFAULT_CELL_HEIGHT = 32;
+
+    /** The narrowest cells can shrink to fit the maze on screen before a viewport is used. */
+    private static final int MIN_CELL_WIDTH = 8;
+
+    /** The shortest cells can shrink to fit the maze on screen before a viewport is used. */
+    private static final int MIN_CELL_HEIGHT = 16;
+
+    /** How much of the screen the viewport takes up. */
+    private static final double VIEWPORT_SCREEN_FRACTION = 0.85;
+
+    /** The pane the player is moved around on, above the cell grid or the canvas overlay. */
+    private static Pane playerLayer = null;
+
+    /** Whether the maze is too large to fit on screen, so a camera follows the player. */
+    private static boolean viewportMode = false;
+
     /** The height of each cell in the maze. */
     private static int cellHeight;
 
@@ -74,6 +114,18 @@ public class Maze2D extends Application {
     /** The maze solver object. */
     private static MazeSolver mazeSolver = null;
 
+    /** The playback of the maze solver moving the player to the end, null when not started. */
+    private static SolutionPlayback playback = null;
+
+    /** The timer that advances the playback once a frame, null until a playback first starts. */
+    private static AnimationTimer playbackTimer = null;
+
+    /** The result of the maze solver, which completes once the solver finishes. */
+    private static CompletableFuture<List<Position>> mazeSolve = null;
+
+    /** How long to wait for the maze solver before assuming the maze is not solvable. */
+    private static final int MAZE_SOLVE_TIMEOUT_SECONDS = 10;
+
     /** The boolean value to indicate whether the maze is solvable. */
     private static boolean mazeSolvable = false;
 
@@ -92,6 +144,26 @@ public class Maze2D extends Application {
     /** The MenuBar for the GUI, which is at the top of the BorderPane. */
     private static MenuBar topFileMenu;
 
+    /** The most queued cell changes applied in a single frame, so a burst can't freeze the UI. */
+    private static final int CELL_CHANGES_PER_FRAME = 256;
+
+    /** The cell changes waiting to be applied, which any thread can add to. */
+    private static final ConcurrentLinkedQueue<CellChange> cellChanges =
+            new ConcurrentLinkedQueue<>();
+
+    /** The timer that applies queued cell changes every frame, null until the game first loads. */
+    private static AnimationTimer cellChangeTimer = null;
+
+    /**
+     * A change waiting to be made to a cell, see {@link #cellsModify(int[], String, Node)}.
+     *
+     * @param position The position of the cell, x then y.
+     * @param action The action to perform, either "add", "remove", "highlight" or "backtrack".
+     * @param node The node to add or remove, or null for highlighting.
+     */
+    private record CellChange(int[] position, String action, Node node) {
+    }
+
     /**
      * The main method for the GUI, initialises the GUI, starts the game loop,
      * and handles key presses.
@@ -120,12 +192,30 @@ public class Maze2D extends Application {
             MazeHeight = Maze.getMazeHeight();
             MazeWidth = Maze.getMazeWidth();
             cells = new StackPane[MazeWidth][MazeHeight];
+            // Drops changes queued for the previous maze's cells, and stops any playback.
+            cellChanges.clear();
+            stopPlayback();
+            mazeCanvas = null;
+            playerLayer = null;
+            viewportMode = false;
             gameStarted = false;
+            notification = null;
             game = new Scene(windowOrganiser);
             // Makes sure the Player is at the start position.
             PlayerPosition.set(Maze.getMazeStartPos());
         }
 
+        // Starts applying queued cell changes once a frame.
+        if (cellChangeTimer == null) {
+            cellChangeTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    applyCellChanges(CELL_CHANGES_PER_FRAME);
+                }
+            };
+            cellChangeTimer.start();
+        }
+
         // Loads the file menu MenuBar object.
         fileMenu();
 
@@ -143,33 +233,25 @@ public class Maze2D extends Application {
         AssetLoader.checkAssets();
         AssetLoader.loadTextures();
 
-        // Starts the MazeSolver thread in way that allows it to still work with the main
-        // JavaFX application thread.
-        mazeSolver = new MazeSolver();
-        Platform.runLater(() -> {
-            Thread mazeSolverThread = new Thread(mazeSolver);
-            // Sets the thread to be a background thread, so it stops when the main thread stops.
-            mazeSolverThread.setDaemon(true);
-            mazeSolverThread.start();
-
-            // Waits until the maze is solvable before continuing.
-            // Starts a timer, if the maze is not solvable within 10 seconds, throws an exception.
-            int autoSolveTimer = 0;
-            while (!mazeSolver.isMazeSolvable() && autoSolveTimer < 10) {
-                try {
-                    autoSolveTimer++;
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    System.err.println("Something went wrong while waiting to see if"
-                            + " the maze is solvable: " + e.getMessage());
-                }
-            }
+        // Stops any solver still running for a previously loaded maze.
+        if (mazeSolve != null) {
+            mazeSolve.cancel(true);
+        }
 
-            // If the maze is solvable, set the maze solvable boolean to true, then load
-            // the solvable notification.
-            mazeSolvable = autoSolveTimer != 10;
+        // Starts the MazeSolver in the background, once it finishes (or the 10 second timeout
+        // runs out) the solvable notification is loaded on the main JavaFX application thread.
+        MazeSolver solver = new MazeSolver();
+        solver.setNextMoveFieldMode(true);
+        mazeSolver = solver;
+        mazeSolve = solver.solveAsync(MAZE_SOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        mazeSolve.whenComplete((path, error) -> Platform.runLater(() -> {
+            // Ignores solvers for mazes that have since been replaced, or games already started.
+            if (mazeSolver != solver || gameStarted) {
+                return;
+            }
+            mazeSolvable = error == null && !path.isEmpty();
             solvableNotification();
-        });
+        }));
 
         // Loads basic textures for the maze
         AssetLoader.loadTextures();
@@ -186,13 +268,25 @@ public class Maze2D extends Application {
                 case S -> Player2D.getPlayer().move('s');
                 case D -> Player2D.getPlayer().move('d');
                 case H -> highlightToggle = !highlightToggle;
-                case Q -> mazeSolver.move();
+                case Q -> autoSolve();
+                case EQUALS, PLUS, ADD -> {
+                    if (playback != null) {
+                        playback.faster();
+                    }
+                }
+                case MINUS, SUBTRACT -> {
+                    if (playback != null) {
+                        playback.slower();
+                    }
+                }
             }
             // If the game has not started yet, starts the game, removes the solvable notification
             // and makes the gameWindow clickable (for the file menu).
             if (!gameStarted) {
                 gameStarted = true;
-                notification.setVisible(false);
+                if (notification != null) {
+                    notification.setVisible(false);
+                }
                 gameWindow.setMouseTransparent(false);
             }
         });
@@ -215,9 +309,32 @@ public class Maze2D extends Application {
     }
 
     /**
-     * Creates the GUI representation of the maze using the global Maze object.
+     * Creates the GUI representation of the maze using the global Maze object. Mazes in viewport
+     * mode, and mazes that fit on screen but have at least CANVAS_RENDER_THRESHOLD cells, are
+     * drawn on a {@link MazeCanvas}, as a stack pane per cell is too many nodes to lay out.
      */
     private static void createMaze() {
+        // Every wall and highlighted path looks up its neighbours, so they are worked out once.
+        MoveMap.makeNeighbourMasks();
+
+        if (viewportMode || (long) MazeWidth * MazeHeight >= CANVAS_RENDER_THRESHOLD) {
+            cells = null;
+            mazeCanvas = new MazeCanvas(cellWidth, cellHeight, windowWidth, windowHeight);
+            gameWindow.getChildren().remove(mazeGrid);
+            gameWindow.getChildren().add(0, mazeCanvas);
+            playerLayer = mazeCanvas.getPlayerLayer();
+            pastMovesMap();
+            return;
+        }
+
+        // The player is moved on a pane the size of the grid, stacked over it, rather than
+        // between the cells, so moving it doesn't lay the cells out again.
+        playerLayer = new Pane();
+        playerLayer.setPrefSize((double) MazeWidth * cellWidth, (double) MazeHeight * cellHeight);
+        playerLayer.setMaxSize((double) MazeWidth * cellWidth, (double) MazeHeight * cellHeight);
+        playerLayer.setMouseTransparent(true);
+        gameWindow.getChildren().add(1, playerLayer);
+
         for (int y = 0; y < MazeHeight; y++) {
             for (int x = 0; x < MazeWidth; x++) {
                 // Creates a new stack pane for the current cell, with a Square object
@@ -248,26 +365,32 @@ public class Maze2D extends Application {
      * and resetting the map of past moves.
      */
     protected static void restartGame() {
+        // Stops the player being moved by a playback that is still running.
+        stopPlayback();
+
+        // Applies any changes still queued, so no highlighting is added after it is removed.
+        applyCellChanges(Integer.MAX_VALUE);
+
         // Resets the player position.
         PlayerPosition.set(
                 new Position(Maze.getMazeStartPos().getX(), Maze.getMazeStartPos().getY()));
 
-        // Removes the player from the end position and adds it to the start position.
-        cells[Maze.getMazeEndPos().getX()][Maze.getMazeEndPos().getY()]
-                .getChildren().remove(Player2D.getPlayer());
-        cells[Maze.getMazeStartPos().getX()][Maze.getMazeStartPos().getY()]
-                .getChildren().add(Player2D.getPlayer());
+        // Moves the player straight back to the start position.
+        placePlayer(new int[]{Maze.getMazeStartPos().getX(), Maze.getMazeStartPos().getY()},
+                false);
 
         // Removes the restart button and end overlay.
         gameWindow.getChildren().remove(AssetLoader.getRestartButton());
         gameWindow.getChildren().remove(AssetLoader.getEndOverlay());
 
-        // Uses PastMoves map to delete all highlighting.
+        // Uses PastMoves map to delete all highlighting, which is all on the trails of a canvas.
+        if (mazeCanvas != null) {
+            mazeCanvas.clearHighlights();
+        }
         List<Node> highlightsToRemove = new ArrayList<>();
-        boolean[][] pastMovesMap = PastMoves.getPastMovesMap();
-        for (int y = 0; y < MazeHeight; y++) {
+        for (int y = 0; y < MazeHeight && cells != null; y++) {
             for (int x = 0; x < MazeWidth; x++) {
-                if (pastMovesMap[y][x]) {
+                if (PastMoves.checkMove(new Position(x, y))) {
                     List<Node> children = cells[x][y].getChildren();
                     if (!children.isEmpty()) {
                         for (Node child : children) {
@@ -294,7 +417,9 @@ public class Maze2D extends Application {
     }
 
     /**
-     * Sets the window size relative to the size of the screen.
+     * Sets the window size relative to the size of the screen. If the maze only fits on screen
+     * with unreadably small cells, the cells are kept at their full size and the window becomes
+     * a viewport onto the maze instead.
      */
     private static void dynamicWindow() {
         // Creates a Rectangle2D object to get the bounds (resolution) of the screen.
@@ -303,21 +428,33 @@ public class Maze2D extends Application {
         double screenWidth = screenBounds.getWidth();
 
         // Sets the cell height and width to the default values (original size of textures).
-        cellHeight = 32;
-        cellWidth = 16;
-
-        // Shrinks the cell height and width until the maze fits on the screen.
-        while (MazeHeight * cellHeight > screenHeight + topFileMenu.getHeight()) {
-            cellHeight = (int) (cellHeight * 0.99);
+        cellHeight = DEFAULT_CELL_HEIGHT;
+        cellWidth = DEFAULT_CELL_WIDTH;
+
+        // Uses a viewport if the maze doesn't fit on the screen even at the smallest cell size,
+        // in either direction.
+        viewportMode = (long) MazeWidth * MIN_CELL_WIDTH > screenWidth
+                || (long) MazeHeight * MIN_CELL_HEIGHT > screenHeight;
+
+        // Sets the window dimensions based on cell size and maze size, or the screen size for a
+        // viewport.
+        if (viewportMode) {
+            windowHeight = (int) Math.min((long) cellHeight * MazeHeight,
+                    (long) (screenHeight * VIEWPORT_SCREEN_FRACTION));
+            windowWidth = (int) Math.min((long) cellWidth * MazeWidth,
+                    (long) (screenWidth * VIEWPORT_SCREEN_FRACTION));
+        } else {
+            // Shrinks the cell height and width separately until the maze fits on the screen.
+            while (MazeHeight * cellHeight > screenHeight) {
+                cellHeight = (int) (cellHeight * 0.99);
+            }
             while (MazeWidth * cellWidth > screenWidth) {
                 cellWidth = (int) (cellWidth * 0.99);
             }
+            windowHeight = cellHeight * MazeHeight;
+            windowWidth = cellWidth * MazeWidth;
         }
 
-        // Sets the window dimensions based on cell size and maze size.
-        windowHeight = cellHeight * MazeHeight;
-        windowWidth = cellWidth * MazeWidth;
-
         // Sets the preferred dimensions of the gameWindow.
         gameWindow.setPrefHeight(windowHeight);
         gameWindow.setPrefWidth(windowWidth);
@@ -464,8 +601,45 @@ public class Maze2D extends Application {
 
     }
 
+    /**
+     * Starts playing back the maze solver moving the player to the end, a few steps each frame,
+     * or pauses or resumes the playback if it is already running.
+     */
+    private static void autoSolve() {
+        if (playback != null && !playback.isFinished()) {
+            playback.togglePause();
+            return;
+        }
+        playback = new SolutionPlayback(mazeSolver);
+        if (playbackTimer == null) {
+            playbackTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    // Stops the timer once there is nothing left to play back.
+                    if (playback == null || !playback.advance()) {
+                        stop();
+                    }
+                }
+            };
+        }
+        playbackTimer.start();
+    }
+
+    /**
+     * Stops any playback of the maze solver, leaving the player where they are.
+     */
+    private static void stopPlayback() {
+        playback = null;
+        if (playbackTimer != null) {
+            playbackTimer.stop();
+        }
+    }
+
     /**
      * Allows modification of nodes in the cells array from outside the main application thread.
+     * Changes are queued and applied in order on the JavaFX application thread over the next
+     * frames, a limited number per frame, so a long burst of changes doesn't flood the event
+     * queue.
      *
      * @param position The position of the stack pane to modify in an int array, the first value
      *                 is the x position and the second value is the y position.
@@ -474,18 +648,92 @@ public class Maze2D extends Application {
      * @param nodeToAction The nodeToAction to add or remove from the stack pane.
      */
     public static void cellsModify(int[] position, String action, Node nodeToAction) {
-        Platform.runLater(() -> {
+        cellChanges.add(new CellChange(position, action, nodeToAction));
+    }
+
+    /**
+     * Highlights the cell at the given position on the canvas, see
+     * {@link #cellsModify(int[], String, Node)}. Only used when the maze is drawn on a canvas.
+     *
+     * @param position The position of the cell, x then y.
+     * @param backtrack Whether the cell was already highlighted, so is darkened.
+     */
+    protected static void highlightCell(int[] position, boolean backtrack) {
+        cellChanges.add(new CellChange(position, backtrack ? "backtrack" : "highlight", null));
+    }
+
+    /**
+     * Applies queued cell changes in the order they were made. Must be called on the JavaFX
+     * application thread.
+     *
+     * @param limit The most changes to apply.
+     */
+    private static void applyCellChanges(int limit) {
+        CellChange change;
+        for (int applied = 0; applied < limit && (change = cellChanges.poll()) != null;
+                applied++) {
             try {
-                switch (action) {
-                    case "add" -> cells[position[0]][position[1]]
-                            .getChildren().add(nodeToAction);
-                    case "remove" -> cells[position[0]][position[1]]
-                            .getChildren().remove(nodeToAction);
+                switch (change.action()) {
+                    case "add" -> addToCell(change.position(), change.node());
+                    case "remove" -> removeFromCell(change.position(), change.node());
+                    case "highlight", "backtrack" -> mazeCanvas.highlight(change.position()[0],
+                            change.position()[1], change.action().equals("backtrack"));
                 }
             } catch (IndexOutOfBoundsException ignored) {
                 // If the position is out of bounds, ignore the exception.
             }
-        });
+        }
+    }
+
+    /**
+     * Moves the player over the cell at the given position, adding it to the player pane the
+     * first time it is placed. Only the player's translation changes, so no cells are laid out
+     * again, and the camera follows the player when the maze is drawn on a canvas. Must be called
+     * on the JavaFX application thread.
+     *
+     * @param position The position of the cell, x then y.
+     * @param animate Whether the player glides to the cell, if smooth movement is on.
+     */
+    protected static void placePlayer(int[] position, boolean animate) {
+        Player2D.Player player = Player2D.getPlayer();
+        if (player.getParent() != playerLayer) {
+            playerLayer.getChildren().add(player);
+        }
+        player.moveTo((double) position[0] * cellWidth, (double) position[1] * cellHeight,
+                animate);
+        if (mazeCanvas != null) {
+            mazeCanvas.follow(position[0], position[1]);
+        }
+    }
+
+    /**
+     * Adds a node to the cell at the given position, or places it over the cell on the overlay
+     * when the maze is drawn on a canvas. Must be called on the JavaFX application thread.
+     *
+     * @param position The position of the cell, x then y.
+     * @param node The node to add.
+     */
+    protected static void addToCell(int[] position, Node node) {
+        if (mazeCanvas != null) {
+            mazeCanvas.place(node, position[0], position[1]);
+        } else {
+            cells[position[0]][position[1]].getChildren().add(node);
+        }
+    }
+
+    /**
+     * Removes a node from the cell at the given position, see {@link #addToCell(int[], Node)}.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param position The position of the cell, x then y.
+     * @param node The node to remove.
+     */
+    protected static void removeFromCell(int[] position, Node node) {
+        if (mazeCanvas != null) {
+            mazeCanvas.remove(node);
+        } else {
+            cells[position[0]][position[1]].getChildren().remove(node);
+        }
     }
 
     /**
@@ -540,7 +788,7 @@ public class Maze2D extends Application {
     /**
      * Getter method for the stack pane array that stores each cell on the grid.
      *
-     * @return The stack pane array.
+     * @return The stack pane array, or null if the maze is drawn on a canvas.
      */
     protected static StackPane[][] getCells() {
         return cells;
@@ -582,5 +830,14 @@ public class Maze2D extends Application {
         return highlightToggle;
     }
 
+    /**
+     * Getter method to check if the maze is drawn on a canvas rather than a grid of cells.
+     *
+     * @return Whether the maze is drawn on a canvas.
+     */
+    protected static boolean isCanvasMode() {
+        return mazeCanvas != null;
+    }
+
 }
 
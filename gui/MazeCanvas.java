@@ -0,0 +1,459 @@
+package gui;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import mazecore.Maze;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Draws the maze onto a grid of tiles rather than creating a stack pane and squares for every
+ * cell, so the number of nodes doesn't grow with the size of the maze. The grass, walls and paths
+ * never change, so each tile is drawn once with the same textures as the squares would be and
+ * snapshotted into an image, leaving a single image view per tile for JavaFX to render. The
+ * highlighted path is drawn onto a trail canvas per tile, created only for tiles with highlighted
+ * cells, and the player and flags are placed on overlay panes above the tiles, so the number of
+ * nodes stays the same however long the highlighted path gets.
+ * <p>
+ * When the maze is larger than the view, the canvas acts as a viewport: a camera follows the
+ * player, and only the tiles in view, plus a margin of one tile, exist at any time, so the cost of
+ * drawing depends on the size of the screen rather than the size of the maze.
+ * </p>
+ */
+public class MazeCanvas extends Pane {
+
+    /** The number of cells along each side of a tile, keeping tiles well within texture limits. */
+    private static final int TILE_CELLS = 32;
+
+    /** The number of grass textures, one is picked for each cell. */
+    private static final int GRASS_TEXTURE_COUNT = 9;
+
+    /** The width of each cell in pixels. */
+    private final int cellWidth;
+
+    /** The height of each cell in pixels. */
+    private final int cellHeight;
+
+    /** The width of the maze in cells. */
+    private final int mazeWidth;
+
+    /** The height of the maze in cells. */
+    private final int mazeHeight;
+
+    /** The width of the view in pixels. */
+    private final double viewWidth;
+
+    /** The height of the view in pixels. */
+    private final double viewHeight;
+
+    /** The pane holding the tiles and the overlay, moved by the camera. */
+    private final Pane content = new Pane();
+
+    /** The pane the tiles are drawn on, below the overlay. */
+    private final Pane tileLayer = new Pane();
+
+    /** The pane above the tiles that the trail canvases are placed on. */
+    private final Pane trailLayer = new Pane();
+
+    /** The pane above the trails that the flags are placed on. */
+    private final Pane overlay = new Pane();
+
+    /** The pane above the overlay that the player is moved around on. */
+    private final Pane playerLayer = new Pane();
+
+    /** The tiles that currently exist, keyed by their tile x and y indices. */
+    private final Map<Long, ImageView> tiles = new HashMap<>();
+
+    /** The trail canvases of the tiles that currently exist and have highlighted cells. */
+    private final Map<Long, Canvas> trails = new HashMap<>();
+
+    /** The flat indices of the highlighted cells that have been backtracked over. */
+    private final Set<Integer> backtracked = new HashSet<>();
+
+    /**
+     * The most tile images kept, as many as can exist at once, so tiles coming back into view
+     * aren't drawn again without keeping more images than are shown.
+     */
+    private final int tileImageCacheSize;
+
+    /** The snapshots of recently shown tiles, from least to most recently used. */
+    private final LinkedHashMap<Long, WritableImage> tileImages;
+
+    /** The canvas every tile is drawn on before being snapshotted, created when first needed. */
+    private Canvas scratch = null;
+
+    /** The x coordinate of the left of the view in the maze, in pixels. */
+    private double cameraX = 0;
+
+    /** The y coordinate of the top of the view in the maze, in pixels. */
+    private double cameraY = 0;
+
+    /**
+     * Creates a canvas for the current maze, with a view the size of the whole maze.
+     *
+     * @param cellWidth The width of each cell in pixels.
+     * @param cellHeight The height of each cell in pixels.
+     */
+    MazeCanvas(int cellWidth, int cellHeight) {
+        this(cellWidth, cellHeight, (double) Maze.getMazeWidth() * cellWidth,
+                (double) Maze.getMazeHeight() * cellHeight);
+    }
+
+    /**
+     * Creates a canvas for the current maze with a view of the given size, showing the top left
+     * of the maze until the camera first follows the player.
+     *
+     * @param cellWidth The width of each cell in pixels.
+     * @param cellHeight The height of each cell in pixels.
+     * @param viewWidth The width of the view in pixels.
+     * @param viewHeight The height of the view in pixels.
+     */
+    MazeCanvas(int cellWidth, int cellHeight, double viewWidth, double viewHeight) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.mazeWidth = Maze.getMazeWidth();
+        this.mazeHeight = Maze.getMazeHeight();
+        this.viewWidth = Math.min(viewWidth, (double) mazeWidth * cellWidth);
+        this.viewHeight = Math.min(viewHeight, (double) mazeHeight * cellHeight);
+        setPrefSize(this.viewWidth, this.viewHeight);
+        setMaxSize(this.viewWidth, this.viewHeight);
+
+        // Only the part of the maze in view is shown.
+        setClip(new Rectangle(this.viewWidth, this.viewHeight));
+
+        // At most the tiles spanned by the view, plus the margin either side, exist at once.
+        int tileColumns = (int) Math.min((mazeWidth - 1) / TILE_CELLS + 1,
+                Math.ceil(this.viewWidth / ((double) TILE_CELLS * cellWidth)) + 3);
+        int tileRows = (int) Math.min((mazeHeight - 1) / TILE_CELLS + 1,
+                Math.ceil(this.viewHeight / ((double) TILE_CELLS * cellHeight)) + 3);
+        tileImageCacheSize = tileColumns * tileRows;
+        tileImages = new LinkedHashMap<>(tileImageCacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> eldest) {
+                return size() > tileImageCacheSize;
+            }
+        };
+
+        // The overlays are sized by their children, and let clicks through to the window.
+        trailLayer.setMouseTransparent(true);
+        overlay.setMouseTransparent(true);
+        playerLayer.setMouseTransparent(true);
+        content.getChildren().addAll(tileLayer, trailLayer, overlay, playerLayer);
+        getChildren().add(content);
+        updateTiles();
+    }
+
+    /**
+     * Moves the camera so the given cell is in the centre of the view, as far as the edges of
+     * the maze allow, then creates the tiles that have come into view and drops those that have
+     * gone out of it.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     */
+    void follow(int x, int y) {
+        double mazePixelWidth = (double) mazeWidth * cellWidth;
+        double mazePixelHeight = (double) mazeHeight * cellHeight;
+        cameraX = clamp((x + 0.5) * cellWidth - viewWidth / 2, mazePixelWidth - viewWidth);
+        cameraY = clamp((y + 0.5) * cellHeight - viewHeight / 2, mazePixelHeight - viewHeight);
+        content.setTranslateX(-cameraX);
+        content.setTranslateY(-cameraY);
+        updateTiles();
+    }
+
+    /**
+     * Clamps a camera coordinate to the maze.
+     *
+     * @param value The camera coordinate.
+     * @param max The largest camera coordinate that keeps the view inside the maze.
+     * @return The clamped coordinate.
+     */
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Makes sure exactly the tiles in view, plus a margin of one tile on every side, exist.
+     */
+    private void updateTiles() {
+        double tilePixelWidth = (double) TILE_CELLS * cellWidth;
+        double tilePixelHeight = (double) TILE_CELLS * cellHeight;
+        int lastTileX = (mazeWidth - 1) / TILE_CELLS;
+        int lastTileY = (mazeHeight - 1) / TILE_CELLS;
+        int minTileX = Math.max(0, (int) (cameraX / tilePixelWidth) - 1);
+        int minTileY = Math.max(0, (int) (cameraY / tilePixelHeight) - 1);
+        int maxTileX = Math.min(lastTileX, (int) ((cameraX + viewWidth) / tilePixelWidth) + 1);
+        int maxTileY = Math.min(lastTileY, (int) ((cameraY + viewHeight) / tilePixelHeight) + 1);
+
+        // Drops the tiles that are now out of view.
+        Iterator<Map.Entry<Long, ImageView>> existing = tiles.entrySet().iterator();
+        while (existing.hasNext()) {
+            Map.Entry<Long, ImageView> entry = existing.next();
+            int tileX = (int) (entry.getKey() >>> 32);
+            int tileY = (int) (long) entry.getKey();
+            if (tileX < minTileX || tileX > maxTileX || tileY < minTileY || tileY > maxTileY) {
+                tileLayer.getChildren().remove(entry.getValue());
+                trailLayer.getChildren().remove(trails.remove(entry.getKey()));
+                existing.remove();
+            }
+        }
+
+        // Draws the tiles that have come into view.
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                long key = (long) tileX << 32 | tileY;
+                if (!tiles.containsKey(key)) {
+                    WritableImage image = tileImages.get(key);
+                    if (image == null) {
+                        image = drawTile(tileX, tileY);
+                        tileImages.put(key, image);
+                    }
+                    ImageView tile = new ImageView(image);
+                    tile.relocate(tileX * tilePixelWidth, tileY * tilePixelHeight);
+                    tiles.put(key, tile);
+                    tileLayer.getChildren().add(tile);
+                    drawTrail(tileX, tileY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the cells of a tile onto the scratch canvas and snapshots them into an image.
+     *
+     * @param tileX The x index of the tile.
+     * @param tileY The y index of the tile.
+     * @return The image of the tile.
+     */
+    private WritableImage drawTile(int tileX, int tileY) {
+        int firstX = tileX * TILE_CELLS;
+        int firstY = tileY * TILE_CELLS;
+        int columns = Math.min(TILE_CELLS, mazeWidth - firstX);
+        int rows = Math.min(TILE_CELLS, mazeHeight - firstY);
+        double tilePixelWidth = (double) columns * cellWidth;
+        double tilePixelHeight = (double) rows * cellHeight;
+
+        if (scratch == null) {
+            scratch = new Canvas((double) TILE_CELLS * cellWidth, (double) TILE_CELLS * cellHeight);
+        }
+        GraphicsContext graphics = scratch.getGraphicsContext2D();
+        graphics.clearRect(0, 0, scratch.getWidth(), scratch.getHeight());
+        for (int y = firstY; y < firstY + rows; y++) {
+            for (int x = firstX; x < firstX + columns; x++) {
+                drawCell(graphics, x, y, (double) (x - firstX) * cellWidth,
+                        (double) (y - firstY) * cellHeight);
+            }
+        }
+
+        // Tiles on the right and bottom edges of the maze only use part of the scratch canvas.
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setViewport(new Rectangle2D(0, 0, tilePixelWidth, tilePixelHeight));
+        return scratch.snapshot(parameters, null);
+    }
+
+    /**
+     * Draws a cell, grass and then a wall on top if the cell is a wall. Paths, the start and the
+     * end are grass, as the squares drawn for them in the cell grid are.
+     *
+     * @param graphics The graphics context of the tile.
+     * @param x The x coordinate of the cell in the maze.
+     * @param y The y coordinate of the cell in the maze.
+     * @param pixelX The x coordinate of the cell in the tile.
+     * @param pixelY The y coordinate of the cell in the tile.
+     */
+    private void drawCell(GraphicsContext graphics, int x, int y, double pixelX, double pixelY) {
+        drawTexture(graphics, grassTextureId(x, y), Color.GREEN, pixelX, pixelY);
+        if (Maze.getComponentAt(x, y) == '#') {
+            drawTexture(graphics, AssetLoader.TextureSelect.textureId(x, y, "wall"),
+                    Color.BLACK, pixelX, pixelY);
+        }
+    }
+
+    /**
+     * Draws a texture into a cell, straight from the texture atlas if it has the texture. If the
+     * assets are missing or the texture can't be loaded, the cell is filled with a colour
+     * instead, as squares are.
+     *
+     * @param graphics The graphics context of the tile.
+     * @param id The id of the texture, or null to use the colour.
+     * @param fallback The colour used if there is no texture.
+     * @param pixelX The x coordinate of the cell in the tile.
+     * @param pixelY The y coordinate of the cell in the tile.
+     */
+    private void drawTexture(GraphicsContext graphics, String id, Color fallback,
+                             double pixelX, double pixelY) {
+        if (AssetLoader.assetCheck() && id != null) {
+            Rectangle2D region = TextureAtlas.getRegion(id);
+            Image atlas = TextureAtlas.getImage();
+            if (region != null && atlas != null) {
+                graphics.drawImage(atlas, region.getMinX(), region.getMinY(), region.getWidth(),
+                        region.getHeight(), pixelX, pixelY, cellWidth, cellHeight);
+                return;
+            }
+            try {
+                graphics.drawImage(TextureCache.getImage(id), pixelX, pixelY, cellWidth,
+                        cellHeight);
+                return;
+            } catch (IllegalArgumentException ignored) {
+                // If the texture can't be loaded, falls back to the colour.
+            }
+        }
+        graphics.setFill(fallback);
+        graphics.fillRect(pixelX, pixelY, cellWidth, cellHeight);
+    }
+
+    /**
+     * Draws the highlighted cells of a tile that has just come into view onto its trail canvas,
+     * if it has any.
+     *
+     * @param tileX The x index of the tile.
+     * @param tileY The y index of the tile.
+     */
+    private void drawTrail(int tileX, int tileY) {
+        int firstX = tileX * TILE_CELLS;
+        int firstY = tileY * TILE_CELLS;
+        int lastX = Math.min(firstX + TILE_CELLS, mazeWidth);
+        int lastY = Math.min(firstY + TILE_CELLS, mazeHeight);
+        for (int y = firstY; y < lastY; y++) {
+            for (int x = firstX; x < lastX; x++) {
+                if (Maze.getComponentAt(x, y) == 'H') {
+                    drawHighlight(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Highlights a cell of the path the player has taken. Only the trail canvas of the cell's
+     * tile is drawn on, and only if the tile is in view, as tiles draw their highlighted cells
+     * when they come into view.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param backtrack Whether the cell was already highlighted, so is darkened.
+     */
+    void highlight(int x, int y, boolean backtrack) {
+        if (backtrack) {
+            backtracked.add(y * mazeWidth + x);
+        }
+        long key = (long) (x / TILE_CELLS) << 32 | (y / TILE_CELLS);
+        if (tiles.containsKey(key)) {
+            drawHighlight(x, y);
+        }
+    }
+
+    /**
+     * Removes every highlighted cell, for example when the game restarts.
+     */
+    void clearHighlights() {
+        trails.clear();
+        trailLayer.getChildren().clear();
+        backtracked.clear();
+    }
+
+    /**
+     * Draws a highlighted cell onto the trail canvas of its tile, creating the canvas if the tile
+     * doesn't have one yet. The cell is cleared first, so drawing it again looks the same.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     */
+    private void drawHighlight(int x, int y) {
+        int tileX = x / TILE_CELLS;
+        int tileY = y / TILE_CELLS;
+        long key = (long) tileX << 32 | tileY;
+        Canvas trail = trails.get(key);
+        if (trail == null) {
+            int columns = Math.min(TILE_CELLS, mazeWidth - tileX * TILE_CELLS);
+            int rows = Math.min(TILE_CELLS, mazeHeight - tileY * TILE_CELLS);
+            trail = new Canvas((double) columns * cellWidth, (double) rows * cellHeight);
+            trail.relocate((double) tileX * TILE_CELLS * cellWidth,
+                    (double) tileY * TILE_CELLS * cellHeight);
+            trails.put(key, trail);
+            trailLayer.getChildren().add(trail);
+        }
+
+        GraphicsContext graphics = trail.getGraphicsContext2D();
+        double pixelX = (double) (x - tileX * TILE_CELLS) * cellWidth;
+        double pixelY = (double) (y - tileY * TILE_CELLS) * cellHeight;
+        graphics.clearRect(pixelX, pixelY, cellWidth, cellHeight);
+        drawTexture(graphics, AssetLoader.TextureSelect.textureId(x, y, "path"), Color.WHITE,
+                pixelX, pixelY);
+        // Darkens backtracked cells, as highlighted squares are darkened.
+        if (backtracked.contains(y * mazeWidth + x)) {
+            graphics.setFill(Color.rgb(0, 0, 0, 0.5));
+            graphics.fillRect(pixelX, pixelY, cellWidth, cellHeight);
+        }
+    }
+
+    /**
+     * Picks the grass texture of a cell. The pick is random looking but always the same for the
+     * same cell, so a cell looks the same every time it is drawn.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The id of the grass texture.
+     */
+    private static String grassTextureId(int x, int y) {
+        int hash = x * 0x9E3779B1 ^ y * 0x85EBCA77;
+        hash ^= hash >>> 15;
+        return "grass/grass0" + Math.floorMod(hash, GRASS_TEXTURE_COUNT);
+    }
+
+    /**
+     * Places a node over a cell, adding it to the overlay if it isn't already there.
+     *
+     * @param node The node to place.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     */
+    void place(Node node, int x, int y) {
+        node.relocate((double) x * cellWidth, (double) y * cellHeight);
+        if (node.getParent() != overlay) {
+            overlay.getChildren().add(node);
+        }
+    }
+
+    /**
+     * Removes a node from the overlay.
+     *
+     * @param node The node to remove.
+     */
+    void remove(Node node) {
+        overlay.getChildren().remove(node);
+    }
+
+    /**
+     * Getter method for the overlay pane the flags are placed on.
+     *
+     * @return The overlay pane.
+     */
+    Pane getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Getter method for the pane the player is moved around on, above the overlay so the
+     * highlighted path is never drawn over the player.
+     *
+     * @return The player pane.
+     */
+    Pane getPlayerLayer() {
+        return playerLayer;
+    }
+}
@@ -1,9 +1,11 @@
 package gui;
 
+import javafx.animation.TranslateTransition;
 import javafx.scene.effect.ColorAdjust;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
 import mazecore.Maze;
 import mazecore.Position;
 import playercore.Movement;
@@ -19,9 +21,18 @@ public class Player2D {
     /** The player object. */
     private static Player player;
 
+    /** How long the player takes to glide from one cell to the next. */
+    private static final Duration MOVE_DURATION = Duration.millis(80);
+
+    /** Whether the player glides between cells rather than jumping, off by default. */
+    private static boolean smoothMovement = Boolean.getBoolean("mazegame.smoothMovement");
+
     /** The player object. An extension of Rectangle to distinguish it from other sprites. */
     public static class Player extends Rectangle {
 
+        /** The transition that glides the player between cells, reused for every move. */
+        private final TranslateTransition transition = new TranslateTransition(MOVE_DURATION, this);
+
         /**
          * Constructor for the player object.
          *
@@ -33,6 +44,29 @@ public class Player2D {
             super(w, h, color);
         }
 
+        /**
+         * Moves the player to the given coordinates by translating it. If a glide is already
+         * running, the next one starts from wherever the player currently is, so quickly
+         * repeated moves stay smooth without creating a transition per move.
+         *
+         * @param x The x coordinate to move to, in pixels.
+         * @param y The y coordinate to move to, in pixels.
+         * @param animate Whether the player glides to the coordinates, if smooth movement is on.
+         */
+        void moveTo(double x, double y, boolean animate) {
+            transition.stop();
+            if (animate && smoothMovement) {
+                transition.setFromX(getTranslateX());
+                transition.setFromY(getTranslateY());
+                transition.setToX(x);
+                transition.setToY(y);
+                transition.playFromStart();
+            } else {
+                setTranslateX(x);
+                setTranslateY(y);
+            }
+        }
+
         /**
          * Moves the player in the specified direction.
          *
@@ -73,9 +107,8 @@ public class Player2D {
                 // Highlights the path the player has taken if highlighting is on.
                 highlightPath(new Position(oldPosition[0], oldPosition[1]));
 
-                // Remove the player from the old position and add it to the new position.
-                Maze2D.cellsModify(oldPosition, "remove", Player2D.getPlayer());
-                Maze2D.cellsModify(newPosition, "add", Player2D.getPlayer());
+                // Moves the player over the new position.
+                Maze2D.placePlayer(newPosition, true);
 
                 // Checks if the player has reached the end of the maze.
                 Maze2D.checkLevelComplete(newPosition);
@@ -91,6 +124,15 @@ public class Player2D {
         player = new Player2D.Player(Maze2D.getCellWidth(), Maze2D.getCellHeight(), null);
     }
 
+    /**
+     * Setter method for whether the player glides between cells rather than jumping.
+     *
+     * @param smooth True to glide between cells, false to jump.
+     */
+    public static void setSmoothMovement(boolean smooth) {
+        smoothMovement = smooth;
+    }
+
     /**
      * Getter method for the player object.
      * @return The player object.
@@ -111,6 +153,15 @@ public class Player2D {
             if (!highlightPos.equals(Maze.getMazeStartPos())
                     && !highlightPos.equals(Maze.getMazeEndPos())) {
 
+                // Draws the highlight onto the canvas trails, rather than adding a node per step.
+                if (Maze2D.isCanvasMode()) {
+                    boolean backtrack = Maze.getComponentAt(highlightPos) == 'H';
+                    Maze.reWriteMaze(highlightPos, 'H');
+                    Maze2D.highlightCell(new int[]{highlightPos.getX(), highlightPos.getY()},
+                            backtrack);
+                    return;
+                }
+
                 // Gets cell sizes once, so they don't need to be retrieved again.
                 int cellHeight = Maze2D.getCellHeight();
                 int cellWidth = Maze2D.getCellWidth();
@@ -0,0 +1,325 @@
+package gui;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A texture atlas, every texture packed into a single image with an index of where each one is,
+ * so the textures are read and decoded from one file instead of dozens. The {@link TextureCache}
+ * serves textures from the atlas whenever one is loaded, and from their own files otherwise.
+ * <p>
+ * An atlas is a folder holding textures.png and textures.atlas, the index, where every line is a
+ * texture id followed by the x, y, width and height of the texture in the image, along with
+ * textures.md5, the MD5 checksum of the image and index together. The checksum lets an atlas be
+ * verified by reading just its two files, rather than every texture it was packed from. Atlases
+ * are kept out of the assets folder so they don't change its checksum, the default atlas is the
+ * atlas folder, and alternative texture packs are just other atlas folders.
+ * </p>
+ * <p>
+ * Usage: {@code java gui.TextureAtlas [textures folder] [atlas folder]} packs every texture in
+ * the textures folder, assets/textures by default, into an atlas, the atlas folder by default.
+ * </p>
+ */
+public class TextureAtlas {
+
+    /** The folder the atlas is loaded from by default. */
+    public static final String DEFAULT_FOLDER = "atlas";
+
+    /** The name of the atlas image in an atlas folder. */
+    private static final String IMAGE_NAME = "textures.png";
+
+    /** The name of the atlas index in an atlas folder. */
+    private static final String INDEX_NAME = "textures.atlas";
+
+    /** The name of the checksum of the atlas image and index in an atlas folder. */
+    private static final String CHECKSUM_NAME = "textures.md5";
+
+    /** The widest the atlas image is packed, in pixels. */
+    private static final int MAX_PACK_WIDTH = 1024;
+
+    /** The atlas image, or null if no atlas is loaded. */
+    private static Image atlasImage = null;
+
+    /** The region of the atlas image each texture id is in. */
+    private static Map<String, Rectangle2D> regions = new HashMap<>();
+
+    /**
+     * Loads the atlas in the given folder, replacing any atlas already loaded and clearing the
+     * texture cache so textures are served from the new atlas. If the folder has no atlas, it
+     * can't be read, or it doesn't match its checksum, no atlas is loaded and textures are loaded
+     * from their own files.
+     *
+     * @param folder The atlas folder.
+     * @return True if the atlas was loaded, false otherwise.
+     */
+    public static boolean load(String folder) {
+        File image = new File(folder, IMAGE_NAME);
+        File index = new File(folder, INDEX_NAME);
+        File checksum = new File(folder, CHECKSUM_NAME);
+        Image loadedImage = null;
+        Map<String, Rectangle2D> loadedRegions = new HashMap<>();
+        if (image.isFile() && index.isFile() && checksum.isFile()) {
+            try {
+                // The files are read once, both to be checked and to be decoded.
+                byte[] imageBytes = Files.readAllBytes(image.toPath());
+                byte[] indexBytes = Files.readAllBytes(index.toPath());
+                String expected = Files.readString(checksum.toPath(), StandardCharsets.US_ASCII);
+                if (!checksum(imageBytes, indexBytes).equals(expected.trim())) {
+                    throw new IOException("Atlas does not match its checksum: " + folder);
+                }
+                loadedRegions = readIndex(new String(indexBytes, StandardCharsets.UTF_8));
+                loadedImage = new Image(new ByteArrayInputStream(imageBytes));
+                if (loadedImage.isError()) {
+                    throw new IOException("Atlas image cannot be decoded: " + image);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Texture atlas cannot be loaded because: " + e.getMessage());
+                loadedImage = null;
+                loadedRegions = new HashMap<>();
+            }
+        }
+
+        synchronized (TextureAtlas.class) {
+            atlasImage = loadedImage;
+            regions = loadedRegions;
+        }
+        // Cleared outside the lock, as the cache checks the atlas while holding its own lock.
+        TextureCache.clear();
+        return loadedImage != null;
+    }
+
+    /**
+     * Checks if the loaded atlas has the texture with the given id.
+     *
+     * @param id The id of the texture.
+     * @return True if an atlas is loaded and has the texture, false otherwise.
+     */
+    public static synchronized boolean contains(String id) {
+        return atlasImage != null && regions.containsKey(id);
+    }
+
+    /**
+     * Getter method for the atlas image, for drawing textures straight from their regions.
+     *
+     * @return The atlas image, or null if no atlas is loaded.
+     */
+    public static synchronized Image getImage() {
+        return atlasImage;
+    }
+
+    /**
+     * Getter method for the region of the atlas image a texture is in.
+     *
+     * @param id The id of the texture.
+     * @return The region of the texture, or null if the atlas doesn't have it.
+     */
+    public static synchronized Rectangle2D getRegion(String id) {
+        return atlasImage == null ? null : regions.get(id);
+    }
+
+    /**
+     * Copies a texture out of the atlas image into an image of its own, for uses such as
+     * ImagePatterns that need the whole image to be the texture. The atlas isn't decoded again.
+     *
+     * @param id The id of the texture.
+     * @return The texture image.
+     * @throws IllegalArgumentException If the atlas doesn't have the texture.
+     */
+    public static synchronized Image getSprite(String id) {
+        Rectangle2D region = getRegion(id);
+        if (region == null) {
+            throw new IllegalArgumentException("Texture not in atlas: " + id);
+        }
+        return new WritableImage(atlasImage.getPixelReader(), (int) region.getMinX(),
+                (int) region.getMinY(), (int) region.getWidth(), (int) region.getHeight());
+    }
+
+    /**
+     * Works out the checksum of an atlas, the MD5 checksum of its image followed by its index.
+     *
+     * @param image The bytes of the atlas image.
+     * @param index The bytes of the atlas index.
+     * @return The checksum as lowercase hexadecimal.
+     */
+    private static String checksum(byte[] image, byte[] index) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(image);
+            digest.update(index);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has MD5, so this can't happen.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads an atlas index.
+     *
+     * @param index The contents of the atlas index.
+     * @return The region of every texture id in the index.
+     * @throws IOException If the index can't be read.
+     * @throws IllegalArgumentException If a line of the index is malformed.
+     */
+    private static Map<String, Rectangle2D> readIndex(String index) throws IOException {
+        Map<String, Rectangle2D> readRegions = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(index))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                // Skips blank lines and comments.
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 5) {
+                    throw new IllegalArgumentException("Malformed atlas index line: " + line);
+                }
+                readRegions.put(parts[0], new Rectangle2D(Integer.parseInt(parts[1]),
+                        Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                        Integer.parseInt(parts[4])));
+            }
+        }
+        return readRegions;
+    }
+
+    /**
+     * Packs every PNG texture in a folder and its subfolders into an atlas. Textures are placed
+     * in rows, tallest first, and their ids are their paths in the folder without the extension.
+     *
+     * @param texturesFolder The folder of textures.
+     * @param atlasFolder The folder the atlas is written to, created if it doesn't exist.
+     * @throws IOException If a texture can't be read or the atlas can't be written.
+     */
+    public static void pack(File texturesFolder, File atlasFolder) throws IOException {
+        List<String> ids = new ArrayList<>();
+        findTextures(texturesFolder, "", ids);
+        if (ids.isEmpty()) {
+            throw new IOException("No textures found in " + texturesFolder);
+        }
+
+        Map<String, BufferedImage> textures = new HashMap<>();
+        for (String id : ids) {
+            BufferedImage texture = ImageIO.read(new File(texturesFolder, id + ".png"));
+            if (texture == null) {
+                throw new IOException("Texture cannot be read: " + id);
+            }
+            textures.put(id, texture);
+        }
+        ids.sort(Comparator.comparingInt((String id) -> -textures.get(id).getHeight())
+                .thenComparing(Comparator.naturalOrder()));
+
+        // Places the textures left to right in rows, starting a new row when one is full.
+        Map<String, int[]> placements = new HashMap<>();
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        int atlasWidth = 0;
+        for (String id : ids) {
+            BufferedImage texture = textures.get(id);
+            if (x > 0 && x + texture.getWidth() > MAX_PACK_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            placements.put(id, new int[] {x, y});
+            x += texture.getWidth();
+            rowHeight = Math.max(rowHeight, texture.getHeight());
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+        int atlasHeight = y + rowHeight;
+
+        BufferedImage atlas = new BufferedImage(atlasWidth, atlasHeight,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+        for (String id : ids) {
+            int[] placement = placements.get(id);
+            graphics.drawImage(textures.get(id), placement[0], placement[1], null);
+        }
+        graphics.dispose();
+
+        if (!atlasFolder.isDirectory() && !atlasFolder.mkdirs()) {
+            throw new IOException("Atlas folder cannot be created: " + atlasFolder);
+        }
+        ImageIO.write(atlas, "png", new File(atlasFolder, IMAGE_NAME));
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(
+                new File(atlasFolder, INDEX_NAME), StandardCharsets.UTF_8))) {
+            writer.write("# id x y width height");
+            writer.newLine();
+            for (String id : ids) {
+                int[] placement = placements.get(id);
+                BufferedImage texture = textures.get(id);
+                writer.write(id + " " + placement[0] + " " + placement[1] + " "
+                        + texture.getWidth() + " " + texture.getHeight());
+                writer.newLine();
+            }
+        }
+
+        // Writes the checksum last, so an atlas that was only partly written is never loaded.
+        String atlasChecksum = checksum(
+                Files.readAllBytes(new File(atlasFolder, IMAGE_NAME).toPath()),
+                Files.readAllBytes(new File(atlasFolder, INDEX_NAME).toPath()));
+        Files.writeString(new File(atlasFolder, CHECKSUM_NAME).toPath(), atlasChecksum + "\n",
+                StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Adds the id of every PNG texture in a folder and its subfolders to a list.
+     *
+     * @param folder The folder to search.
+     * @param prefix The path of the folder from the textures folder, ending in a slash.
+     * @param ids The list the ids are added to.
+     */
+    private static void findTextures(File folder, String prefix, List<String> ids) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                findTextures(file, prefix + name + "/", ids);
+            } else if (name.endsWith(".png")) {
+                ids.add(prefix + name.substring(0, name.length() - ".png".length()));
+            }
+        }
+    }
+
+    /**
+     * Packs a folder of textures into an atlas.
+     *
+     * @param args The optional textures folder and atlas folder.
+     */
+    public static void main(String[] args) {
+        File texturesFolder = new File(args.length > 0 ? args[0] : "assets/textures");
+        File atlasFolder = new File(args.length > 1 ? args[1] : DEFAULT_FOLDER);
+        try {
+            pack(texturesFolder, atlasFolder);
+        } catch (IOException e) {
+            System.err.println("Texture atlas cannot be packed because: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package gui;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.ImagePattern;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of decoded textures, so each texture file is decoded once and the same ImagePattern is
+ * shared by every square that uses it, rather than every wall and highlighted path decoding its
+ * own copy. Textures are keyed by their id, their path in the textures folder without the .png
+ * extension, for example "wall/hedge05". Textures are taken from the {@link TextureAtlas} if one
+ * is loaded and has them.
+ * <p>
+ * By default the cache keeps every texture, as the game only has a few dozen. For memory
+ * constrained runs, the mazegame.textureCacheSize system property (or setMaxSize) limits the
+ * number of textures kept, evicting the least recently used first.
+ * </p>
+ */
+public class TextureCache {
+
+    /** The folder every texture id is relative to, as a URL. */
+    private static final String TEXTURE_FOLDER = "file:assets/textures/";
+
+    /** The most textures kept, or 0 to keep every texture. */
+    private static int maxSize = Integer.getInteger("mazegame.textureCacheSize", 0);
+
+    /** The cached textures by id, in order from least to most recently used. */
+    private static final LinkedHashMap<String, ImagePattern> textures =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImagePattern> eldest) {
+                    return maxSize > 0 && size() > maxSize;
+                }
+            };
+
+    /**
+     * Gets the texture with the given id, decoding it the first time it is used.
+     *
+     * @param id The id of the texture, its path in the textures folder without the extension.
+     * @return The texture as an ImagePattern.
+     * @throws IllegalArgumentException If the id is null or the texture file can't be loaded.
+     */
+    public static synchronized ImagePattern getPattern(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Texture id cannot be null");
+        }
+        ImagePattern pattern = textures.get(id);
+        if (pattern == null) {
+            pattern = load(id);
+        }
+        return pattern;
+    }
+
+    /**
+     * Gets the decoded image of the texture with the given id, see {@link #getPattern(String)}.
+     *
+     * @param id The id of the texture, its path in the textures folder without the extension.
+     * @return The decoded image.
+     * @throws IllegalArgumentException If the id is null or the texture file can't be loaded.
+     */
+    public static synchronized Image getImage(String id) {
+        return getPattern(id).getImage();
+    }
+
+    /**
+     * Decodes the texture with the given id and adds it to the cache.
+     *
+     * @param id The id of the texture.
+     * @return The texture as an ImagePattern.
+     * @throws IllegalArgumentException If the texture file can't be loaded.
+     */
+    private static ImagePattern load(String id) {
+        // Textures in the atlas are copied out of it, rather than decoded from their own files.
+        Image image = TextureAtlas.contains(id) ? TextureAtlas.getSprite(id)
+                : new Image(TEXTURE_FOLDER + id + ".png");
+        if (image.isError()) {
+            throw new IllegalArgumentException("Texture cannot be loaded: " + id,
+                    image.getException());
+        }
+        ImagePattern pattern = new ImagePattern(image);
+        textures.put(id, pattern);
+        return pattern;
+    }
+
+    /**
+     * Setter method for the most textures kept, evicting the least recently used textures if
+     * there are already more.
+     *
+     * @param size The most textures kept, or 0 to keep every texture.
+     */
+    public static synchronized void setMaxSize(int size) {
+        maxSize = Math.max(0, size);
+        while (maxSize > 0 && textures.size() > maxSize) {
+            textures.remove(textures.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Getter method for the number of textures currently cached.
+     *
+     * @return The number of cached textures.
+     */
+    public static synchronized int size() {
+        return textures.size();
+    }
+
+    /**
+     * Removes every texture from the cache, for example when the assets change.
+     */
+    public static synchronized void clear() {
+        textures.clear();
+    }
+}
@@ -0,0 +1,54 @@
+package io;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The layout of a binary maze file. Every value is little-endian.
+ * <p>
+ * The file starts with a 32 byte header of eight ints: the magic number, the format version,
+ * the width, the height, the flat index of the start, the flat index of the end, a CRC32
+ * checksum and a reserved zero. The checksum covers the first six ints of the header and the
+ * whole body. The body follows straight after, holding the words of a packed move map, one bit
+ * per cell in row-major order, where a set bit is a valid move.
+ * </p>
+ * <p>
+ * Only walls and valid moves are stored, so travelled '.' cells are loaded back as ' ' paths.
+ * </p>
+ */
+final class BinaryMazeFormat {
+
+    /** The magic number every binary maze file starts with, "MZB1" when read as bytes. */
+    static final int MAGIC = 0x31425A4D;
+
+    /** The version of the format. */
+    static final int VERSION = 1;
+
+    /** The size of the header in bytes. */
+    static final int HEADER_SIZE = 32;
+
+    /** The number of header bytes covered by the checksum. */
+    static final int CHECKED_HEADER_SIZE = 24;
+
+    /** The position of the checksum in the header. */
+    static final int CHECKSUM_OFFSET = 24;
+
+    /**
+     * Stops the format from being instantiated.
+     */
+    private BinaryMazeFormat() {
+    }
+
+    /**
+     * Calculates the checksum of a binary maze file.
+     *
+     * @param file The whole file, the position and limit are left unchanged.
+     * @return The CRC32 checksum of the checked header and the body.
+     */
+    static int checksum(ByteBuffer file) {
+        CRC32 crc = new CRC32();
+        crc.update(file.duplicate().position(0).limit(CHECKED_HEADER_SIZE));
+        crc.update(file.duplicate().position(HEADER_SIZE).limit(file.capacity()));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,176 @@
+package io;
+
+import customexceptions.MazeMalformedException;
+import customexceptions.MazeSizeMissmatchException;
+import playercore.PackedMoveMap;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads the maze from a binary maze file according to the FileInterface. Binary files are
+ * written by {@link BinaryMazeWriter} from mazes that have already been fully checked, so only
+ * the header, checksum and border are checked here and the body is copied straight into a packed
+ * move map, without looking at any other cell.
+ * <p>
+ * A binary file holds a 32 byte header, with the dimensions, the start and end as flat indices
+ * and a CRC32 checksum, followed by one bit per cell laid out exactly like the words of a
+ * PackedMoveMap.
+ * </p>
+ */
+public class BinaryMazeLoader implements FileInterface {
+
+    /** The file extension of binary maze files. */
+    public static final String EXTENSION = ".mzb";
+
+    /** The flat index of the start of the last maze loaded. */
+    private int startIndex;
+
+    /** The flat index of the end of the last maze loaded. */
+    private int endIndex;
+
+    @Override
+    public char[][] load(String filename) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        PackedMoveMap map = loadMoveMap(filename);
+        int width = map.getWidth();
+        char[][] maze = new char[map.getHeight()][width];
+        int index = 0;
+        for (char[] row : maze) {
+            for (int x = 0; x < width; x++) {
+                row[x] = map.isOpen(index++) ? ' ' : '#';
+            }
+        }
+        maze[map.yOf(startIndex)][map.xOf(startIndex)] = 'S';
+        maze[map.yOf(endIndex)][map.xOf(endIndex)] = 'E';
+        return maze;
+    }
+
+    /**
+     * Loads a binary maze file straight into a packed move map. The start and end can then be
+     * found with {@link #getStartIndex()} and {@link #getEndIndex()}.
+     *
+     * @param filename The path to the binary maze file to be loaded.
+     * @return The packed move map of the maze.
+     * @throws MazeMalformedException If the header is invalid or the checksum doesn't match.
+     * @throws MazeSizeMissmatchException If the file size doesn't match its dimensions.
+     * @throws FileNotFoundException If the maze file is not found.
+     */
+    public PackedMoveMap loadMoveMap(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinaryMazeFormat.HEADER_SIZE) {
+                throw new MazeMalformedException("Maze malformed. The file is too short to be a "
+                        + "binary maze file.");
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(size, Integer.MAX_VALUE));
+            file.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (file.getInt() != BinaryMazeFormat.MAGIC) {
+                throw new MazeMalformedException("Maze malformed. The file is not a binary "
+                        + "maze file.");
+            }
+            int version = file.getInt();
+            if (version != BinaryMazeFormat.VERSION) {
+                throw new MazeMalformedException("Maze malformed. Unsupported binary maze "
+                        + "version: " + version);
+            }
+            int width = file.getInt();
+            int height = file.getInt();
+            int start = file.getInt();
+            int end = file.getInt();
+            int checksum = file.getInt();
+
+            // Throw an exception if height and width aren't positive odd numbers.
+            if (width <= 0 || height <= 0 || width % 2 == 0 || height % 2 == 0
+                    || (long) width * height > Integer.MAX_VALUE) {
+                throw new MazeMalformedException("Maze malformed."
+                        + " Height and width must be odd numbers.");
+            }
+            long cellCount = (long) width * height;
+            long expectedSize = BinaryMazeFormat.HEADER_SIZE + ((cellCount + 63) >>> 6) * 8;
+            if (size != expectedSize) {
+                throw new MazeSizeMissmatchException("Maze size mismatch. Expected "
+                        + expectedSize + " bytes for a " + height + "x" + width + " maze, "
+                        + "actual: " + size);
+            }
+            if (BinaryMazeFormat.checksum(file) != checksum) {
+                throw new MazeMalformedException("Maze malformed. The checksum does not match, "
+                        + "the file is corrupt.");
+            }
+
+            PackedMoveMap map = PackedMoveMap.fromWords(width, height,
+                    file.slice(BinaryMazeFormat.HEADER_SIZE, (int) size
+                            - BinaryMazeFormat.HEADER_SIZE)
+                            .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+
+            // Throw an exception if the start or end aren't valid moves within the maze.
+            if (start < 0 || start >= cellCount || end < 0 || end >= cellCount || start == end
+                    || !map.isOpen(start) || !map.isOpen(end)) {
+                throw new MazeMalformedException("Maze malformed."
+                        + " There must and can only be one start and one end position");
+            }
+            // Throw an exception if the border isn't all walls, as the checksum only shows the
+            // file hasn't changed since it was written, not that what was written is a maze.
+            if (!wallBorder(map)) {
+                throw new MazeMalformedException("Maze malformed."
+                        + " The border of the maze must be made of walls.");
+            }
+            startIndex = start;
+            endIndex = end;
+            return map;
+        } catch (NoSuchFileException nsfe) {
+            throw new FileNotFoundException("The following file could not be found: " + filename);
+        } catch (IOException ioe) {
+            throw new FileNotFoundException("The following file could not be read: " + filename);
+        }
+    }
+
+    /**
+     * Checks that every cell on the border of a move map is a wall.
+     *
+     * @param map The move map to check.
+     * @return True if the whole border is walls, false otherwise.
+     */
+    private static boolean wallBorder(PackedMoveMap map) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        for (int x = 0; x < width; x++) {
+            if (map.isOpen(x, 0) || map.isOpen(x, height - 1)) {
+                return false;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            if (map.isOpen(0, y) || map.isOpen(width - 1, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter method for the flat index of the start of the last maze loaded.
+     *
+     * @return The flat index of the start.
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Getter method for the flat index of the end of the last maze loaded.
+     *
+     * @return The flat index of the end.
+     */
+    public int getEndIndex() {
+        return endIndex;
+    }
+}
@@ -0,0 +1,93 @@
+package io;
+
+import customexceptions.MazeMalformedException;
+import customexceptions.MazeSizeMissmatchException;
+import playercore.PackedMoveMap;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes mazes in the binary maze format, see {@link BinaryMazeLoader}, and converts text maze
+ * files to it. Text files are fully checked while being converted, so binary files only need
+ * their checksum checked when loaded.
+ * <p>
+ * Usage: {@code java io.BinaryMazeWriter <maze.txt> <maze.mzb>}
+ * </p>
+ */
+public class BinaryMazeWriter {
+
+    /**
+     * Converts a text maze file to a binary maze file.
+     *
+     * @param args The path to the text maze file, then the path of the binary file to write.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java io.BinaryMazeWriter <maze.txt> <maze"
+                    + BinaryMazeLoader.EXTENSION + ">");
+            System.exit(1);
+        }
+        try {
+            convert(args[0], args[1]);
+        } catch (MazeMalformedException | MazeSizeMissmatchException
+                 | IllegalArgumentException | IOException e) {
+            System.err.println("Maze cannot be converted because: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads and checks a text maze file, then writes it as a binary maze file.
+     *
+     * @param textFilename The path to the text maze file.
+     * @param binaryFilename The path of the binary maze file to write.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws FileNotFoundException If the text maze file is not found.
+     * @throws IOException If the binary maze file can't be written.
+     */
+    public static void convert(String textFilename, String binaryFilename)
+            throws MazeMalformedException, MazeSizeMissmatchException, IOException {
+        MappedFileLoader loader = new MappedFileLoader();
+        PackedMoveMap map = loader.loadMoveMap(textFilename);
+        write(binaryFilename, map, loader.getStartIndex(), loader.getEndIndex());
+    }
+
+    /**
+     * Writes a maze as a binary maze file, replacing the file if it already exists.
+     *
+     * @param filename The path of the binary maze file to write.
+     * @param map The packed move map of the maze.
+     * @param start The flat index of the start.
+     * @param end The flat index of the end.
+     * @throws IOException If the file can't be written.
+     */
+    public static void write(String filename, PackedMoveMap map, int start, int end)
+            throws IOException {
+        long size = BinaryMazeFormat.HEADER_SIZE + (long) map.getWordCount() * Long.BYTES;
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            file.putInt(BinaryMazeFormat.MAGIC)
+                    .putInt(BinaryMazeFormat.VERSION)
+                    .putInt(map.getWidth())
+                    .putInt(map.getHeight())
+                    .putInt(start)
+                    .putInt(end);
+            map.copyWords(file.slice(BinaryMazeFormat.HEADER_SIZE,
+                    (int) size - BinaryMazeFormat.HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+            file.putInt(BinaryMazeFormat.CHECKSUM_OFFSET, BinaryMazeFormat.checksum(file));
+            file.putInt(BinaryMazeFormat.CHECKSUM_OFFSET + Integer.BYTES, 0);
+            file.force();
+        }
+    }
+}
@@ -82,30 +82,21 @@ public class FileLoader implements FileInterface {
             throw new FileNotFoundException("The following file could not be found: " + filename);
         }
 
-        // Only after the maze has been read, checks last row of maze is as expected.
-        StringBuilder currentRow = new StringBuilder();
-        StringBuilder expectedLastRow = new StringBuilder();
-        for (char component : maze[height - 1]) {
-            currentRow.append(component);
-            expectedLastRow.append('#');
+        // Only after the maze has been read, checks the last row and the rest of the border.
+        // A missing row means there were fewer rows than the given height.
+        boolean lastRowWalls = maze.length > 0 && maze[height - 1] != null;
+        for (int x = 0; lastRowWalls && x < width; x++) {
+            lastRowWalls = maze[height - 1][x] == '#';
         }
-        // If the last row isn't made up of only wall components, assume there is a size mismatch.
-        if (currentRow.compareTo(expectedLastRow) != 0) {
-            throw new MazeSizeMissmatchException("Maze size mismatch"
-                    + "The given height does not match the actual maze height");
+        boolean edgeWalls = true;
+        for (int y = 0; lastRowWalls && y < height; y++) {
+            edgeWalls &= maze[y][0] == '#' && maze[y][width - 1] == '#';
         }
-
-        // Throw an exception if there is more than one start or end positions.
-        if (startCount != 1 || endCount != 1) {
-            throw new MazeMalformedException("Maze malformed."
-                    + " There must and can only be one start and one end position");
+        for (int x = 0; lastRowWalls && x < width; x++) {
+            edgeWalls &= maze[0][x] == '#';
         }
 
-        // Throw an exception if height and width are even numbers.
-        if (height % 2 == 0 || width % 2 == 0) {
-            throw new MazeMalformedException("Maze malformed."
-                    + " Height and width must be odd numbers.");
-        }
+        MazeValidator.check(height, width, lastRowWalls, edgeWalls, startCount, endCount);
 
         return maze;
     }
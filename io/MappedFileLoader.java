@@ -0,0 +1,449 @@
+package io;
+
+import customexceptions.MazeMalformedException;
+import customexceptions.MazeSizeMissmatchException;
+import customexceptions.UnexpectedCharException;
+import playercore.PackedMoveMap;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads the maze from a file according to the FileInterface, by memory-mapping the file and
+ * scanning it byte by byte, for maze files too large to read quickly line by line.
+ * The header, the width of every row, the start and end counts and the border are all checked
+ * in a single pass, without creating a String for any line, and the file is mapped a window at a
+ * time so files of any size can be read.
+ * <p>
+ * As well as the usual maze array, the maze can be loaded straight into a packed move map with
+ * {@link #loadMoveMap(String)}, which takes one bit per cell instead of two bytes.
+ * </p>
+ */
+public class MappedFileLoader implements FileInterface {
+
+    /** The number of bytes of the file mapped at a time. */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    /** The kind of a byte that isn't a valid maze character. */
+    private static final byte INVALID = 0;
+
+    /** The kind of a wall or path byte, which needs no checks beyond being valid. */
+    private static final byte PLAIN = 1;
+
+    /** The kind of a start byte. */
+    private static final byte START = 2;
+
+    /** The kind of an end byte. */
+    private static final byte END = 3;
+
+    /** The kind of every byte, indexed by its unsigned value. */
+    private static final byte[] COMPONENT_KINDS = new byte[256];
+
+    static {
+        COMPONENT_KINDS['#'] = PLAIN;
+        COMPONENT_KINDS[' '] = PLAIN;
+        COMPONENT_KINDS['.'] = PLAIN;
+        COMPONENT_KINDS['S'] = START;
+        COMPONENT_KINDS['E'] = END;
+    }
+
+    /** The height of the last maze loaded. */
+    private int height;
+
+    /** The width of the last maze loaded. */
+    private int width;
+
+    /** The maze array being filled, or null if a move map is being filled. */
+    private char[][] maze;
+
+    /** The move map being filled, or null if a maze array is being filled. */
+    private PackedMoveMap moveMap;
+
+    /** The flat index of the start of the last maze loaded. */
+    private int startIndex;
+
+    /** The flat index of the end of the last maze loaded. */
+    private int endIndex;
+
+    @Override
+    public char[][] load(String filename) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        scan(filename, false);
+        char[][] loaded = maze;
+        maze = null;
+        return loaded;
+    }
+
+    /**
+     * Loads a maze straight into a packed move map, checking the file exactly as
+     * {@link #load(String)} does. The start and end can then be found with
+     * {@link #getStartIndex()} and {@link #getEndIndex()}.
+     *
+     * @param filename The path to the maze file to be loaded.
+     * @return The packed move map of the maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors.
+     * @throws FileNotFoundException If the maze file is not found.
+     */
+    public PackedMoveMap loadMoveMap(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        scan(filename, true);
+        PackedMoveMap loaded = moveMap;
+        moveMap = null;
+        return loaded;
+    }
+
+    /**
+     * Maps the file and scans the header and every row of the maze, filling in either a maze
+     * array or a move map.
+     *
+     * @param filename The path to the maze file to be loaded.
+     * @param packed True to fill in a move map, false to fill in a maze array.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws FileNotFoundException If the maze file is not found.
+     */
+    private void scan(String filename, boolean packed) throws MazeMalformedException,
+            MazeSizeMissmatchException, FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            MappedBytes bytes = new MappedBytes(channel);
+            readHeader(bytes);
+            if (packed) {
+                moveMap = new PackedMoveMap(width, height);
+            } else {
+                maze = new char[height][width];
+            }
+
+            int startCount = 0;
+            int endCount = 0;
+            boolean edgeWalls = true;
+            byte[] line = new byte[width];
+            for (int y = 0; y < height; y++) {
+                int length = bytes.readLine(line);
+                if (length < 0) {
+                    throw new MazeSizeMissmatchException("Maze size mismatch. "
+                            + "The given height does not match the actual maze height.");
+                }
+                if (length != width) {
+                    throw new MazeSizeMissmatchException("Maze size mismatch. "
+                            + "Expected dimensions do not match actual dimensions. "
+                            + "Expected width: " + width + " Actual width of row " + (y + 1)
+                            + ": " + length);
+                }
+
+                // Checks the first and last component of every row, and the whole first row.
+                edgeWalls &= line[0] == '#' && line[width - 1] == '#';
+                if (y == 0) {
+                    for (int x = 0; x < width; x++) {
+                        edgeWalls &= line[x] == '#';
+                    }
+                }
+
+                int rowStart = y * width;
+                for (int x = 0; x < width; x++) {
+                    // Looks the byte up in a table, so walls and paths take the same branch.
+                    byte kind = COMPONENT_KINDS[line[x] & 0xFF];
+                    if (kind == PLAIN) {
+                        continue;
+                    }
+                    if (kind == START) {
+                        startCount++;
+                        startIndex = rowStart + x;
+                    } else if (kind == END) {
+                        endCount++;
+                        endIndex = rowStart + x;
+                    } else if (kind == INVALID) {
+                        // Throw an exception if the character is not a valid maze character.
+                        throw new UnexpectedCharException("Maze malformed. "
+                                + "Unexpected character: " + (char) (line[x] & 0xFF));
+                    }
+                }
+
+                if (packed) {
+                    for (int x = 0; x < width; x++) {
+                        moveMap.setOpen(rowStart + x, line[x] != '#');
+                    }
+                } else {
+                    char[] row = maze[y];
+                    for (int x = 0; x < width; x++) {
+                        row[x] = (char) line[x];
+                    }
+                }
+            }
+
+            // Only after the maze has been read, checks last row of maze is as expected.
+            boolean lastRowWalls = true;
+            for (int x = 0; x < width; x++) {
+                lastRowWalls &= line[x] == '#';
+            }
+
+            MazeValidator.check(height, width, lastRowWalls, edgeWalls, startCount, endCount);
+        } catch (NoSuchFileException nsfe) {
+            throw new FileNotFoundException("The following file could not be found: " + filename);
+        } catch (IOException ioe) {
+            throw new FileNotFoundException("The following file could not be read: " + filename);
+        } catch (MazeMalformedException | MazeSizeMissmatchException e) {
+            maze = null;
+            moveMap = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the first line of the file, which must start with the height and width of the maze
+     * as two positive integers separated by a space.
+     *
+     * @param bytes The bytes of the file, positioned at the start.
+     * @throws MazeMalformedException If the first line isn't two integers separated by a space.
+     * @throws IOException If the file can't be read.
+     */
+    private void readHeader(MappedBytes bytes) throws MazeMalformedException, IOException {
+        long dimensions = readDimension(bytes);
+        height = (int) (dimensions >>> 32);
+        if ((int) dimensions != ' ') {
+            throw malformedHeader();
+        }
+        dimensions = readDimension(bytes);
+        width = (int) (dimensions >>> 32);
+        int b = (int) dimensions;
+
+        // Anything after a second space is ignored, like the rest of a split line.
+        if (b == ' ') {
+            while (b >= 0 && b != '\n' && b != '\r') {
+                b = bytes.next();
+            }
+        }
+        if (b == '\r') {
+            bytes.skipIf('\n');
+        } else if (b != '\n' && b >= 0) {
+            throw malformedHeader();
+        }
+    }
+
+    /**
+     * Reads a positive integer from the header.
+     *
+     * @param bytes The bytes of the file, positioned at the start of the integer.
+     * @return The integer in the high half, and the byte after it (-1 at the end of the file)
+     *         in the low half.
+     * @throws MazeMalformedException If there are no digits or the integer is too large.
+     * @throws IOException If the file can't be read.
+     */
+    private static long readDimension(MappedBytes bytes) throws MazeMalformedException,
+            IOException {
+        long value = 0;
+        int digits = 0;
+        int b = bytes.next();
+        while (b >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw malformedHeader();
+            }
+            digits++;
+            b = bytes.next();
+        }
+        if (digits == 0 || value == 0) {
+            throw malformedHeader();
+        }
+        return (value << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Creates the exception thrown for a bad first line.
+     *
+     * @return The exception to throw.
+     */
+    private static MazeMalformedException malformedHeader() {
+        return new MazeMalformedException("Maze malformed. The first line must "
+                + "be two integers separated by a space.");
+    }
+
+    /**
+     * Getter method for the flat index of the start of the last maze loaded.
+     *
+     * @return The flat index of the start.
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Getter method for the flat index of the end of the last maze loaded.
+     *
+     * @return The flat index of the end.
+     */
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    /**
+     * The bytes of a file, read in order through windows of the file mapped one at a time. Bytes
+     * are copied out of the window in chunks, which is much faster than reading the mapped
+     * buffer a byte at a time.
+     */
+    private static class MappedBytes {
+        /** The number of bytes copied out of the window at a time. */
+        private static final int CHUNK_SIZE = 1 << 16;
+
+        /** The channel of the file being read. */
+        private final FileChannel channel;
+
+        /** The size of the file in bytes. */
+        private final long size;
+
+        /** The window of the file currently mapped, null before the first window. */
+        private MappedByteBuffer window;
+
+        /** The position in the file of the end of the current window. */
+        private long windowEnd;
+
+        /** The bytes most recently copied out of the window. */
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        /** The position of the next byte in the chunk. */
+        private int position;
+
+        /** The number of bytes in the chunk. */
+        private int limit;
+
+        MappedBytes(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * Reads the next byte of the file.
+         *
+         * @return The byte, from 0 to 255, or -1 at the end of the file.
+         * @throws IOException If the next window of the file can't be mapped.
+         */
+        private int next() throws IOException {
+            if (position == limit && !fillChunk()) {
+                return -1;
+            }
+            return chunk[position++] & 0xFF;
+        }
+
+        /**
+         * Reads the next line of the file, without its leading and trailing whitespace like
+         * String.trim, and without creating a String. The line ends at a new line, a carriage
+         * return, a carriage return followed by a new line, or the end of the file.
+         *
+         * @param line The buffer the trimmed line is copied into, any bytes past its length are
+         *             counted but not copied.
+         * @return The length of the trimmed line, or -1 if there are no lines left.
+         * @throws IOException If the next window of the file can't be mapped.
+         */
+        private int readLine(byte[] line) throws IOException {
+            if (atEnd()) {
+                return -1;
+            }
+            int length = 0;
+            int overflowLength = 0;
+            boolean started = false;
+            while (position < limit || fillChunk()) {
+                byte[] bytes = chunk;
+                int end = limit;
+                int i = position;
+
+                // Skips leading whitespace, comparing the bytes as unsigned values.
+                while (!started && i < end) {
+                    if ((bytes[i] & 0xFF) > ' ' || bytes[i] == '\n' || bytes[i] == '\r') {
+                        started = true;
+                    } else {
+                        i++;
+                    }
+                }
+                // Copies the line, only checking for whitespace in bytes that don't fit.
+                for (; i < end; i++) {
+                    byte b = bytes[i];
+                    if (b == '\n' || b == '\r') {
+                        position = i + 1;
+                        if (b == '\r') {
+                            skipIf('\n');
+                        }
+                        return trimmedLength(line, length, overflowLength);
+                    }
+                    if (length < line.length) {
+                        line[length] = b;
+                    } else if ((b & 0xFF) > ' ') {
+                        overflowLength = length + 1;
+                    }
+                    length++;
+                }
+                position = end;
+            }
+            return trimmedLength(line, length, overflowLength);
+        }
+
+        /**
+         * Works out the length of a line without its trailing whitespace.
+         *
+         * @param line The buffer the line was copied into.
+         * @param length The length of the line, including any bytes that didn't fit.
+         * @param overflowLength The length up to the last non-whitespace byte that didn't fit,
+         *                       or 0 if there wasn't one.
+         * @return The length of the trimmed line.
+         */
+        private static int trimmedLength(byte[] line, int length, int overflowLength) {
+            if (overflowLength > 0) {
+                return overflowLength;
+            }
+            int trimmed = Math.min(length, line.length);
+            while (trimmed > 0 && (line[trimmed - 1] & 0xFF) <= ' ') {
+                trimmed--;
+            }
+            return trimmed;
+        }
+
+        /**
+         * Skips the next byte of the file if it is the given byte.
+         *
+         * @param expected The byte to skip.
+         * @throws IOException If the next window of the file can't be mapped.
+         */
+        private void skipIf(int expected) throws IOException {
+            if ((position < limit || fillChunk()) && (chunk[position] & 0xFF) == expected) {
+                position++;
+            }
+        }
+
+        /**
+         * Checks if every byte of the file has been read.
+         *
+         * @return True if there are no bytes left, false otherwise.
+         * @throws IOException If the next window of the file can't be mapped.
+         */
+        private boolean atEnd() throws IOException {
+            return position == limit && !fillChunk();
+        }
+
+        /**
+         * Copies the next chunk of bytes out of the window, mapping the next window of the file
+         * once the current one has been used up.
+         *
+         * @return True if any bytes were copied, false if the end of the file has been reached.
+         * @throws IOException If the next window can't be mapped.
+         */
+        private boolean fillChunk() throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (windowEnd >= size) {
+                    return false;
+                }
+                long length = Math.min(WINDOW_SIZE, size - windowEnd);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, length);
+                windowEnd += length;
+            }
+            limit = Math.min(CHUNK_SIZE, window.remaining());
+            window.get(chunk, 0, limit);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io;
+
+import customexceptions.MazeMalformedException;
+import customexceptions.MazeSizeMissmatchException;
+
+/**
+ * The checks every text maze loader makes once a maze has been read, so the same maze is
+ * accepted or rejected whichever loader reads it.
+ */
+final class MazeValidator {
+
+    /**
+     * Stops the validator being instantiated, as it only has static methods.
+     */
+    private MazeValidator() {
+    }
+
+    /**
+     * Checks a maze that has been read, throwing the exception for the first check that fails.
+     *
+     * @param height The height of the maze.
+     * @param width The width of the maze.
+     * @param lastRowWalls Whether the last row is made up of only walls.
+     * @param edgeWalls Whether the first row and the first and last component of every row are
+     *                  walls.
+     * @param startCount The number of start positions.
+     * @param endCount The number of end positions.
+     * @throws MazeSizeMissmatchException If the last row isn't made up of only walls, assumed to
+     *                                    mean the given height is wrong.
+     * @throws MazeMalformedException If the border isn't made of walls, there isn't exactly one
+     *                                start and end, or the height or width is even.
+     */
+    static void check(int height, int width, boolean lastRowWalls, boolean edgeWalls,
+            int startCount, int endCount)
+            throws MazeSizeMissmatchException, MazeMalformedException {
+        // If the last row isn't made up of only wall components, assume there is a size mismatch.
+        if (!lastRowWalls) {
+            throw new MazeSizeMissmatchException("Maze size mismatch. "
+                    + "The given height does not match the actual maze height.");
+        }
+        // Throw an exception if the rest of the border isn't made up of only walls.
+        if (!edgeWalls) {
+            throw new MazeMalformedException("Maze malformed."
+                    + " The border of the maze must be made of walls.");
+        }
+        // Throw an exception if there is more than one start or end positions.
+        if (startCount != 1 || endCount != 1) {
+            throw new MazeMalformedException("Maze malformed."
+                    + " There must and can only be one start and one end position");
+        }
+        // Throw an exception if height and width are even numbers.
+        if (height % 2 == 0 || width % 2 == 0) {
+            throw new MazeMalformedException("Maze malformed."
+                    + " Height and width must be odd numbers.");
+        }
+    }
+}
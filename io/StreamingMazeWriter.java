@@ -0,0 +1,192 @@
+package io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a maze file one row at a time through a buffered channel, so mazes far larger than the
+ * heap can be written as they are generated. Files ending in {@value BinaryMazeLoader#EXTENSION}
+ * are written in the binary maze format, with the checksum filled in once the last row has been
+ * written, and any other file in the text format.
+ * <p>
+ * The binary format stores the start and end as int flat indices, so binary files are limited to
+ * mazes with fewer than 2^31 cells. Text files can be any size.
+ * </p>
+ */
+public class StreamingMazeWriter implements AutoCloseable {
+
+    /** The size of the write buffer in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The channel of the file being written. */
+    private final FileChannel channel;
+
+    /** The buffer rows are written into before being written to the channel. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** Whether the file is written in the binary format. */
+    private final boolean binary;
+
+    /** The width of the maze. */
+    private final int width;
+
+    /** The height of the maze. */
+    private final int height;
+
+    /** The number of rows written so far. */
+    private int rowsWritten;
+
+    /** The checksum of the binary header and body written so far. */
+    private final CRC32 checksum = new CRC32();
+
+    /** The position in the buffer the checksum has been calculated up to. */
+    private int checkedPosition;
+
+    /** The bits of the binary body that don't yet fill a whole word. */
+    private long pendingBits;
+
+    /** The number of bits in pendingBits. */
+    private int pendingBitCount;
+
+    /**
+     * Creates the file and writes its header.
+     *
+     * @param filename The path of the file to write, replacing the file if it already exists.
+     * @param width The width of the maze.
+     * @param height The height of the maze.
+     * @param start The flat index of the start.
+     * @param end The flat index of the end.
+     * @throws IOException If the file can't be created.
+     * @throws IllegalArgumentException If the maze is too large for the binary format.
+     */
+    public StreamingMazeWriter(String filename, int width, int height, long start, long end)
+            throws IOException {
+        this.binary = filename.endsWith(BinaryMazeLoader.EXTENSION);
+        this.width = width;
+        this.height = height;
+        if (binary && (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze too large for the binary format: "
+                    + width + "x" + height);
+        }
+        this.channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        if (binary) {
+            buffer.putInt(BinaryMazeFormat.MAGIC)
+                    .putInt(BinaryMazeFormat.VERSION)
+                    .putInt(width)
+                    .putInt(height)
+                    .putInt((int) start)
+                    .putInt((int) end);
+            checksum.update(buffer.duplicate().flip());
+            // The checksum and reserved ints are filled in when the file is closed.
+            buffer.putInt(0).putInt(0);
+            checkedPosition = BinaryMazeFormat.HEADER_SIZE;
+        } else {
+            buffer.put((height + " " + width + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Writes the next row of the maze.
+     *
+     * @param row The components of the row, '#' for walls, and ' ', 'S' or 'E' otherwise.
+     * @throws IOException If the row can't be written.
+     * @throws IllegalStateException If every row has already been written.
+     */
+    public void writeRow(byte[] row) throws IOException {
+        if (rowsWritten == height) {
+            throw new IllegalStateException("Every row of the maze has already been written.");
+        }
+        rowsWritten++;
+        if (binary) {
+            for (int x = 0; x < width; x++) {
+                pendingBits |= (row[x] != '#' ? 1L : 0L) << pendingBitCount;
+                if (++pendingBitCount == Long.SIZE) {
+                    putWord();
+                }
+            }
+        } else {
+            for (int offset = 0; offset < width; ) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(width - offset, buffer.remaining());
+                buffer.put(row, offset, length);
+                offset += length;
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) '\n');
+        }
+    }
+
+    /**
+     * Writes the last partly filled word of a binary body, flushes the buffer and fills in the
+     * binary checksum, then closes the file.
+     *
+     * @throws IOException If the file can't be written.
+     * @throws IllegalStateException If fewer rows were written than the height of the maze.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsWritten != height) {
+                throw new IllegalStateException("Only " + rowsWritten + " of " + height
+                        + " rows were written.");
+            }
+            if (binary && pendingBitCount > 0) {
+                putWord();
+            }
+            flush();
+            if (binary) {
+                ByteBuffer value = ByteBuffer.allocate(Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt((int) checksum.getValue())
+                        .flip();
+                channel.write(value, BinaryMazeFormat.CHECKSUM_OFFSET);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Adds the pending bits to the buffer as a word of the binary body.
+     *
+     * @throws IOException If the buffer is full and can't be flushed.
+     */
+    private void putWord() throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush();
+        }
+        buffer.putLong(pendingBits);
+        pendingBits = 0;
+        pendingBitCount = 0;
+    }
+
+    /**
+     * Writes everything in the buffer to the channel, adding the binary body to the checksum.
+     *
+     * @throws IOException If the buffer can't be written.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        if (binary) {
+            checksum.update(buffer.duplicate().position(checkedPosition));
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        checkedPosition = 0;
+    }
+}
@@ -1,13 +1,38 @@
 package mazecore;
 
-import playercore.MoveMap;
-
 /**
  * Creates an array of possible moves for the given position and whether they are valid.
  * Can return two possible size of array depending on the numToCheck int.
+ * The same information is also available as a bitmask, see {@link #mask(Position)}, and from
+ * the coordinates or flat index of a cell, see {@link #mask(int, int)} and
+ * {@link #mask(MazeContext, int)}, which need no allocation at all.
  */
 public class CheckPosition {
 
+    /** The bit of a neighbour mask set if the position above is a valid move. */
+    public static final int UP = 1;
+
+    /** The bit of a neighbour mask set if the position to the top left is a valid move. */
+    public static final int TOP_LEFT = 1 << 1;
+
+    /** The bit of a neighbour mask set if the position to the left is a valid move. */
+    public static final int LEFT = 1 << 2;
+
+    /** The bit of a neighbour mask set if the position to the bottom left is a valid move. */
+    public static final int BOTTOM_LEFT = 1 << 3;
+
+    /** The bit of a neighbour mask set if the position below is a valid move. */
+    public static final int DOWN = 1 << 4;
+
+    /** The bit of a neighbour mask set if the position to the bottom right is a valid move. */
+    public static final int BOTTOM_RIGHT = 1 << 5;
+
+    /** The bit of a neighbour mask set if the position to the right is a valid move. */
+    public static final int RIGHT = 1 << 6;
+
+    /** The bit of a neighbour mask set if the position to the top right is a valid move. */
+    public static final int TOP_RIGHT = 1 << 7;
+
     /**
      * Returns an array of possible moves for the position and whether they are valid.
      * If numToCheck is 4, the array will be [up, left, down, right].
@@ -19,44 +44,82 @@ public class CheckPosition {
      * @return An array of possible moves for the position and whether they are valid.
      */
     public static boolean[] get(Position positionToCheck, int numToCheck) {
-        // Gets the X and Y coordinates of the position to check.
-        int x = positionToCheck.getX();
-        int y = positionToCheck.getY();
-
-        // Creates an array of booleans to store whether the moves are valid.
-        boolean[] possibleMoves = new boolean[8];
+        return get(MazeContext.getCurrent(), positionToCheck, numToCheck);
+    }
 
-        // Up.
-        possibleMoves[0] = MoveMap.validMove(new Position(x, (y - 1)));
-        // Top Left.
-        possibleMoves[1] = MoveMap.validMove(new Position((x - 1), (y - 1)));
-        // Left.
-        possibleMoves[2] = MoveMap.validMove(new Position((x - 1), y));
-        // Bottom Left.
-        possibleMoves[3] = MoveMap.validMove(new Position((x - 1), (y + 1)));
-        // Down.
-        possibleMoves[4] = MoveMap.validMove(new Position(x, (y + 1)));
-        // Bottom Right.
-        possibleMoves[5] = MoveMap.validMove(new Position((x + 1), (y + 1)));
-        // Right.
-        possibleMoves[6] = MoveMap.validMove(new Position((x + 1), y));
-        // Top Right.
-        possibleMoves[7] = MoveMap.validMove(new Position((x + 1), (y - 1)));
+    /**
+     * Returns an array of possible moves for the position in the given context, in the same
+     * order as {@link #get(Position, int)}.
+     *
+     * @param context The maze context whose move map is checked.
+     * @param positionToCheck The position to check.
+     * @param numToCheck The number of positions to check.
+     * @return An array of possible moves for the position and whether they are valid.
+     */
+    public static boolean[] get(MazeContext context, Position positionToCheck, int numToCheck) {
+        int mask = mask(context, positionToCheck);
 
         if (numToCheck == 4) {
-            boolean[] reducedPossibleMoves = new boolean[4];
-            // Up.
-            reducedPossibleMoves[0] = possibleMoves[0];
-            // Left.
-            reducedPossibleMoves[1] = possibleMoves[2];
-            // Down.
-            reducedPossibleMoves[2] = possibleMoves[4];
-            // Right.
-            reducedPossibleMoves[3] = possibleMoves[6];
-            return reducedPossibleMoves;
+            // Up, left, down and right.
+            return new boolean[] {(mask & UP) != 0, (mask & LEFT) != 0, (mask & DOWN) != 0,
+                    (mask & RIGHT) != 0};
         }
 
+        // Bit i of the mask is position i of the array.
+        boolean[] possibleMoves = new boolean[8];
+        for (int i = 0; i < 8; i++) {
+            possibleMoves[i] = (mask & (1 << i)) != 0;
+        }
         return possibleMoves;
     }
 
+    /**
+     * Returns which of the eight neighbours of the position are valid moves as a bitmask, with
+     * bit i set if position i of [up, top left, left, bottom left, down, bottom right, right,
+     * top right] is valid, see {@link #UP} to {@link #TOP_RIGHT}.
+     *
+     * @param positionToCheck The position to check.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public static int mask(Position positionToCheck) {
+        return mask(MazeContext.getCurrent(), positionToCheck);
+    }
+
+    /**
+     * Returns which of the eight neighbours of the position in the given context are valid moves
+     * as a bitmask, see {@link #mask(Position)}.
+     *
+     * @param context The maze context whose move map is checked.
+     * @param positionToCheck The position to check.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public static int mask(MazeContext context, Position positionToCheck) {
+        return context.getNeighbourMask(positionToCheck.getX(), positionToCheck.getY());
+    }
+
+    /**
+     * Returns which of the eight neighbours of a cell are valid moves as a bitmask, see
+     * {@link #mask(Position)}, without needing a Position.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public static int mask(int x, int y) {
+        return MazeContext.getCurrent().getNeighbourMask(x, y);
+    }
+
+    /**
+     * Returns which of the eight neighbours of a cell in the given context are valid moves as a
+     * bitmask, see {@link #mask(Position)}, from the cell's flat index.
+     *
+     * @param context The maze context whose move map is checked.
+     * @param index The flat index of the cell, y * width + x.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public static int mask(MazeContext context, int index) {
+        int width = context.getMazeWidth();
+        return context.getNeighbourMask(index % width, index / width);
+    }
+
 }
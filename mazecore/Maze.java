@@ -2,51 +2,24 @@ package mazecore;
 
 import customexceptions.MazeMalformedException;
 import customexceptions.MazeSizeMissmatchException;
-import io.FileLoader;
 
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * A class which stores and provides access to the maze and its attributes.
+ * Every method acts on the current MazeContext, see {@link MazeContext#getCurrent()}.
  */
 public class Maze {
 
-    /** The maze array. */
-    private static char[][] maze;
-
-    /** The width of the maze. */
-    private static int mazeWidth;
-
-    /** The height of the maze. */
-    private static int mazeHeight;
-
-    /** The position of the start of the maze. */
-    private static Position mazeStartPos;
-
-    /** The position of the end of the maze. */
-    private static Position mazeEndPos;
-
-    /** An ArrayList of all the allowed component types. */
-    private static final ArrayList<Character> allowedTypes = new ArrayList<>(
-            Arrays.asList('S', 'E', '#', ' ', '.', 'H'));
-
     /**
-     * Initialises the maze.
+     * Initialises the maze and makes it the current context.
      * @param filename The name of the file from which the maze is loaded.
      */
     public static void makeMaze(String filename) {
-        // Instantiates file loader for loading the maze.
-        FileLoader loadMap = new FileLoader();
-
         // Catches any exceptions that may occur when loading the maze,
         // then print as error and exit.
         try {
-            maze = loadMap.load(filename);
-            mazeWidth = (maze[0].length);
-            mazeHeight = (maze.length);
-            mazeAnalyser(maze);
+            MazeContext.setCurrent(MazeContext.load(filename));
         } catch (MazeMalformedException | MazeSizeMissmatchException
                  | IllegalArgumentException | FileNotFoundException e) {
             System.err.println("Maze cannot be loaded because: " + e.getMessage());
@@ -54,23 +27,6 @@ public class Maze {
         }
     }
 
-    /**
-     * Analyzes the maze to find and store the start and end positions.
-     *
-     * @param maze The maze 2D char array.
-     */
-    private static void mazeAnalyser(char[][] maze) {
-        for (int y = 0; y < mazeHeight; y++) {
-            for (int x = 0; x < mazeWidth; x++) {
-                if (maze[y][x] == 'S') {
-                    mazeStartPos = (new Position(x, y));
-                } else if (maze[y][x] == 'E') {
-                    mazeEndPos = (new Position(x, y));
-                }
-            }
-        }
-    }
-
     /**
      * Getter method that returns the component at the specified position.
      *
@@ -78,18 +34,18 @@ public class Maze {
      * @return The component at the specified position.
      */
     public static char getComponentAt(Position position) {
-        // Gets the getX and getY coordinates of the position once.
-        int x = position.getX();
-        int y = position.getY();
+        return MazeContext.getCurrent().getComponentAt(position);
+    }
 
-        // If the position is within the bounds of the maze, returns the component at that position.
-        if (x >= 0 && x <= getMazeWidth() && y >= 0 && y <= getMazeHeight()) {
-            return maze[y][x];
-        } else {
-            // Else prints an error and return a placeholder space character.
-            System.err.println("Error in getting component at position, position out of bounds.");
-            return ' ';
-        }
+    /**
+     * Getter method that returns the component at the specified coordinates.
+     *
+     * @param x The x coordinate to get the component at.
+     * @param y The y coordinate to get the component at.
+     * @return The component at the specified coordinates.
+     */
+    public static char getComponentAt(int x, int y) {
+        return MazeContext.getCurrent().getComponentAt(x, y);
     }
 
     /**
@@ -99,7 +55,7 @@ public class Maze {
      * @param component The component (char) to rewrite the position with.
      */
     public static void reWriteMaze(Position position, char component) {
-        maze[position.getY()][position.getX()] = component;
+        MazeContext.getCurrent().reWriteMaze(position, component);
     }
 
     /**
@@ -109,20 +65,7 @@ public class Maze {
      * @param replacementType The type (char) to replace the removed component with.
      */
     public static void removeComponentType(char componentType, char replacementType) {
-
-        // If the component type is valid, iterates through the maze and replace all instances of
-        // that component type with the replacement type. Else, prints an error message.
-        if (allowedTypes.contains(componentType) && allowedTypes.contains(replacementType)) {
-            for (int y = 0; y < mazeHeight; y++) {
-                for (int x = 0; x < mazeWidth; x++) {
-                    if (getComponentAt(new Position(x, y)) == componentType) {
-                        maze[y][x] = replacementType;
-                    }
-                }
-            }
-        } else {
-            System.err.println("Invalid component type.");
-        }
+        MazeContext.getCurrent().removeComponentType(componentType, replacementType);
     }
 
     /**
@@ -131,7 +74,7 @@ public class Maze {
      * @return The maze width as an int.
      */
     public static int getMazeWidth() {
-        return mazeWidth;
+        return MazeContext.getCurrent().getMazeWidth();
     }
 
     /**
@@ -140,7 +83,7 @@ public class Maze {
      * @return The maze height as an int.
      */
     public static int getMazeHeight() {
-        return mazeHeight;
+        return MazeContext.getCurrent().getMazeHeight();
     }
 
 
@@ -150,7 +93,7 @@ public class Maze {
      * @return The start position record.
      */
     public static Position getMazeStartPos() {
-        return mazeStartPos;
+        return MazeContext.getCurrent().getMazeStartPos();
     }
 
 
@@ -160,6 +103,6 @@ public class Maze {
      * @return The end position record.
      */
     public static Position getMazeEndPos() {
-        return mazeEndPos;
+        return MazeContext.getCurrent().getMazeEndPos();
     }
 }
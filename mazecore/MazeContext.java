@@ -0,0 +1,507 @@
+package mazecore;
+
+import customexceptions.MazeMalformedException;
+import customexceptions.MazeSizeMissmatchException;
+import io.BinaryMazeLoader;
+import io.FileLoader;
+import io.MappedFileLoader;
+import playercore.PackedMoveMap;
+import solvercore.JunctionGraph;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A single loaded maze session, which owns the maze array, the move map, the past moves map and
+ * the player's position. Every context is independent of every other context, so any number of
+ * mazes can be loaded, solved or played in the same program at once.
+ * The static Maze, MoveMap, PastMoves and PlayerPosition classes act on the current context.
+ * <p>
+ * A context can also be created straight from a packed move map, for mazes loaded from binary or
+ * very large files, in which case there is no maze array. Components are then worked out from
+ * the move map, and only the positions that have been rewritten, such as highlighted paths, are
+ * stored separately.
+ * </p>
+ */
+public class MazeContext {
+
+    /** The size in bytes from which maze files are memory-mapped instead of read line by line. */
+    private static final long MAPPED_LOAD_THRESHOLD = 16L << 20;
+
+    /** The number of bits in each word of the past moves bitset, as a shift (2^6 = 64). */
+    private static final int WORD_SHIFT = 6;
+
+    /** The context used by the static Maze, MoveMap, PastMoves and PlayerPosition classes. */
+    private static volatile MazeContext current;
+
+    /** The maze array, or null if the context was created from a move map. */
+    private final char[][] maze;
+
+    /** The rewritten components by flat index, only used when there is no maze array. */
+    private final Map<Integer, Character> rewrites = new HashMap<>();
+
+    /** The width of the maze. */
+    private final int mazeWidth;
+
+    /** The height of the maze. */
+    private final int mazeHeight;
+
+    /** The position of the start of the maze. */
+    private Position mazeStartPos;
+
+    /** The position of the end of the maze. */
+    private Position mazeEndPos;
+
+    /** The packed move map that stores where valid moves are, null until makeMoveMap is called. */
+    private PackedMoveMap moveMap;
+
+    /** The neighbour mask of every cell, null until makeNeighbourMasks is called. */
+    private volatile byte[] neighbourMasks;
+
+    /** The junction graph of the move map, empty until first asked for. */
+    private final AtomicReference<JunctionGraph> junctionGraph = new AtomicReference<>();
+
+    /**
+     * The player's past moves in the maze, one bit per cell by flat index, null until
+     * pastMovesMap is called.
+     */
+    private long[] pastMoves;
+
+    /** The player's position in the maze. */
+    private volatile Position playerPosition;
+
+    /** An ArrayList of all the allowed component types. */
+    private static final ArrayList<Character> allowedTypes = new ArrayList<>(
+            Arrays.asList('S', 'E', '#', ' ', '.', 'H'));
+
+    /**
+     * Creates a new context around an already loaded maze array, then finds the start and end
+     * positions and places the player at the start.
+     *
+     * @param maze The maze 2D char array.
+     */
+    public MazeContext(char[][] maze) {
+        this.maze = maze;
+        this.mazeWidth = maze[0].length;
+        this.mazeHeight = maze.length;
+        mazeAnalyser();
+        this.playerPosition = mazeStartPos;
+    }
+
+    /**
+     * Creates a new context around an already loaded move map, without a maze array, and places
+     * the player at the start.
+     *
+     * @param moveMap The packed move map of the maze.
+     * @param mazeStartPos The start position of the maze.
+     * @param mazeEndPos The end position of the maze.
+     */
+    public MazeContext(PackedMoveMap moveMap, Position mazeStartPos, Position mazeEndPos) {
+        this.maze = null;
+        this.moveMap = moveMap;
+        this.mazeWidth = moveMap.getWidth();
+        this.mazeHeight = moveMap.getHeight();
+        this.mazeStartPos = mazeStartPos;
+        this.mazeEndPos = mazeEndPos;
+        this.playerPosition = mazeStartPos;
+    }
+
+    /**
+     * Loads the maze from the given file into a new context. Binary maze files are recognised by
+     * their extension, large text files are memory-mapped and scanned as bytes, and smaller text
+     * files are read line by line.
+     *
+     * @param filename The name of the file from which the maze is loaded.
+     * @return The new context.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors.
+     * @throws FileNotFoundException If the maze file is not found.
+     */
+    public static MazeContext load(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        if (filename.endsWith(BinaryMazeLoader.EXTENSION)) {
+            // Binary files are already packed, so are never expanded into a maze array.
+            BinaryMazeLoader loader = new BinaryMazeLoader();
+            PackedMoveMap map = loader.loadMoveMap(filename);
+            return new MazeContext(map, positionOf(map, loader.getStartIndex()),
+                    positionOf(map, loader.getEndIndex()));
+        }
+        if (new File(filename).length() >= MAPPED_LOAD_THRESHOLD) {
+            // Text files this large are packed as they are scanned, rather than held as chars.
+            MappedFileLoader loader = new MappedFileLoader();
+            PackedMoveMap map = loader.loadMoveMap(filename);
+            return new MazeContext(map, positionOf(map, loader.getStartIndex()),
+                    positionOf(map, loader.getEndIndex()));
+        }
+        return new MazeContext(new FileLoader().load(filename));
+    }
+
+    /**
+     * Converts a flat index of a move map to a position.
+     *
+     * @param map The move map the index is in.
+     * @param index The flat index.
+     * @return The position of the index.
+     */
+    private static Position positionOf(PackedMoveMap map, int index) {
+        return new Position(map.xOf(index), map.yOf(index));
+    }
+
+    /**
+     * Getter method for the context used by the static maze and player classes.
+     *
+     * @return The current context, or null if no maze has been loaded yet.
+     */
+    public static MazeContext getCurrent() {
+        return current;
+    }
+
+    /**
+     * Setter method for the context used by the static maze and player classes.
+     *
+     * @param context The context to make current.
+     */
+    public static void setCurrent(MazeContext context) {
+        current = context;
+    }
+
+    /**
+     * Analyzes the maze to find and store the start and end positions.
+     */
+    private void mazeAnalyser() {
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                if (maze[y][x] == 'S') {
+                    mazeStartPos = (new Position(x, y));
+                } else if (maze[y][x] == 'E') {
+                    mazeEndPos = (new Position(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter method that returns the component at the specified position.
+     *
+     * @param position The position to get the component at.
+     * @return The component at the specified position.
+     */
+    public char getComponentAt(Position position) {
+        return getComponentAt(position.getX(), position.getY());
+    }
+
+    /**
+     * Getter method that returns the component at the specified coordinates, see
+     * {@link #getComponentAt(Position)}.
+     *
+     * @param x The x coordinate to get the component at.
+     * @param y The y coordinate to get the component at.
+     * @return The component at the specified coordinates.
+     */
+    public char getComponentAt(int x, int y) {
+        // If the position is within the bounds of the maze, returns the component at that position.
+        if (x >= 0 && x <= mazeWidth && y >= 0 && y <= mazeHeight) {
+            return maze != null ? maze[y][x] : packedComponentAt(x, y);
+        } else {
+            // Else prints an error and return a placeholder space character.
+            System.err.println("Error in getting component at position, position out of bounds.");
+            return ' ';
+        }
+    }
+
+    /**
+     * Setter method that rewrites the given position in the maze with the given component (char).
+     *
+     * @param position The position to rewrite.
+     * @param component The component (char) to rewrite the position with.
+     */
+    public void reWriteMaze(Position position, char component) {
+        if (maze != null) {
+            maze[position.getY()][position.getX()] = component;
+            return;
+        }
+        // Only components that differ from the move map are stored.
+        int index = moveMap.index(position.getX(), position.getY());
+        if (component == loadedComponentAt(position.getX(), position.getY())) {
+            rewrites.remove(index);
+        } else {
+            rewrites.put(index, component);
+        }
+    }
+
+    /**
+     * Gets the component at a position of a context without a maze array, the rewritten
+     * component if there is one, or the component it was loaded as otherwise.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @return The component at the position.
+     */
+    private char packedComponentAt(int x, int y) {
+        Character rewritten = x < mazeWidth && y < mazeHeight
+                ? rewrites.get(moveMap.index(x, y)) : null;
+        return rewritten != null ? rewritten : loadedComponentAt(x, y);
+    }
+
+    /**
+     * Works out the component a position was loaded as from the move map, the start and the end.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @return The start, end, path or wall component.
+     */
+    private char loadedComponentAt(int x, int y) {
+        if (x == mazeStartPos.getX() && y == mazeStartPos.getY()) {
+            return 'S';
+        } else if (x == mazeEndPos.getX() && y == mazeEndPos.getY()) {
+            return 'E';
+        }
+        return moveMap.isOpen(x, y) ? ' ' : '#';
+    }
+
+    /**
+     * Removes all instances of the given component type from the maze.
+     *
+     * @param componentType The component type (char) to remove.
+     * @param replacementType The type (char) to replace the removed component with.
+     */
+    public void removeComponentType(char componentType, char replacementType) {
+
+        // If the component type is valid, iterates through the maze and replace all instances of
+        // that component type with the replacement type. Else, prints an error message.
+        if (allowedTypes.contains(componentType) && allowedTypes.contains(replacementType)) {
+            // Without a maze array, only the rewritten components can be of a removable type.
+            if (maze == null) {
+                List<Integer> matches = new ArrayList<>();
+                for (Map.Entry<Integer, Character> entry : rewrites.entrySet()) {
+                    if (entry.getValue() == componentType) {
+                        matches.add(entry.getKey());
+                    }
+                }
+                for (int index : matches) {
+                    reWriteMaze(positionOf(moveMap, index), replacementType);
+                }
+                return;
+            }
+            for (int y = 0; y < mazeHeight; y++) {
+                for (int x = 0; x < mazeWidth; x++) {
+                    if (maze[y][x] == componentType) {
+                        maze[y][x] = replacementType;
+                    }
+                }
+            }
+        } else {
+            System.err.println("Invalid component type.");
+        }
+    }
+
+    /**
+     * Creates the move map by analysing the maze in a single pass, marking any position that
+     * isn't a wall as a valid move. A context created from a move map keeps the one it has.
+     */
+    public void makeMoveMap() {
+        if (maze != null) {
+            moveMap = PackedMoveMap.fromMaze(maze);
+        }
+        neighbourMasks = null;
+        junctionGraph.set(null);
+    }
+
+    /**
+     * Builds a table of the neighbour mask of every cell from the move map, so masks are read
+     * rather than worked out each time, see {@link #getNeighbourMask(int, int)}. Must be called
+     * after makeMoveMap, and is optional as it takes one byte per cell.
+     */
+    public void makeNeighbourMasks() {
+        neighbourMasks = moveMap.neighbourMasks();
+    }
+
+    /**
+     * Gets which of the eight neighbours of a position are valid moves, as a bitmask in the
+     * order of {@link CheckPosition}. Read from the table if makeNeighbourMasks has been called,
+     * otherwise worked out from the move map.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public int getNeighbourMask(int x, int y) {
+        byte[] masks = neighbourMasks;
+        if (masks != null && x >= 0 && x < mazeWidth && y >= 0 && y < mazeHeight) {
+            return masks[y * mazeWidth + x] & 0xFF;
+        }
+        return moveMap.neighbourMask(x, y);
+    }
+
+    /**
+     * Gets the junction graph of the move map, building it the first time it is asked for. The
+     * graph is built without holding any lock, so solving one context never waits on another,
+     * and if two threads build it at once the first one published is kept. Must be called after
+     * makeMoveMap.
+     *
+     * @return The junction graph of the move map.
+     */
+    public JunctionGraph getJunctionGraph() {
+        JunctionGraph graph = junctionGraph.get();
+        if (graph == null) {
+            JunctionGraph built = JunctionGraph.build(moveMap);
+            junctionGraph.compareAndSet(null, built);
+            graph = junctionGraph.get();
+            // The move map was replaced while building, so the graph just built is used once.
+            if (graph == null) {
+                graph = built;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Checks if the move is valid. Positions outside the maze are never valid.
+     *
+     * @param position The position to check.
+     * @return True if the move is valid, false otherwise.
+     */
+    public boolean validMove(Position position) {
+        return moveMap.isOpen(position.getX(), position.getY());
+    }
+
+    /**
+     * Getter method that returns the packed move map.
+     *
+     * @return The packed move map, or null if makeMoveMap has not been called.
+     */
+    public PackedMoveMap getMoveMap() {
+        return moveMap;
+    }
+
+    /**
+     * Initialises the player's past moves in the maze, by creating a bitset with a bit for every
+     * cell of the maze, all clear to indicate no moves have been made yet.
+     */
+    public void pastMovesMap() {
+        pastMoves = new long[(int) (((long) mazeWidth * mazeHeight + 63) >>> WORD_SHIFT)];
+    }
+
+    /**
+     * Adds a move to the player's past moves map. If an invalid move is added, it is ignored.
+     *
+     * @param position The position of the move.
+     */
+    public void addMove(Position position) {
+        // If the move is invalid, it is ignored.
+        if (isInside(position)) {
+            int index = position.getY() * mazeWidth + position.getX();
+            pastMoves[index >>> WORD_SHIFT] |= 1L << index;
+        }
+    }
+
+    /**
+     * Resets the player's past moves map.
+     */
+    public void resetMap() {
+        Arrays.fill(pastMoves, 0L);
+    }
+
+    /**
+     * Checks if the given position has already been visited.
+     *
+     * @param position The position to check.
+     * @return True if the position has been visited before, false otherwise.
+     */
+    public boolean checkMove(Position position) {
+        if (!isInside(position)) {
+            return false;
+        }
+        int index = position.getY() * mazeWidth + position.getX();
+        return (pastMoves[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Getter method that returns a copy of the past moves map as a 2D Boolean Array. The copy
+     * takes a byte per cell, so is only meant for small mazes; use checkMove otherwise.
+     *
+     * @return A 2D Boolean Array that represents the past moves map.
+     */
+    public boolean[][] getPastMovesMap() {
+        boolean[][] view = new boolean[mazeHeight][mazeWidth];
+        for (int y = 0; y < mazeHeight; y++) {
+            for (int x = 0; x < mazeWidth; x++) {
+                int index = y * mazeWidth + x;
+                view[y][x] = (pastMoves[index >>> WORD_SHIFT] & (1L << index)) != 0;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Checks whether a position is inside the maze.
+     *
+     * @param position The position to check.
+     * @return True if the position is inside the maze, false otherwise.
+     */
+    private boolean isInside(Position position) {
+        return position.getX() >= 0 && position.getX() < mazeWidth
+                && position.getY() >= 0 && position.getY() < mazeHeight;
+    }
+
+    /**
+     * Gets the player's position in the maze.
+     *
+     * @return The player's position in the maze.
+     */
+    public Position getPlayerPosition() {
+        return playerPosition;
+    }
+
+    /**
+     * Sets the player's position in the maze.
+     *
+     * @param position The position to set the player's position to.
+     */
+    public void setPlayerPosition(Position position) {
+        playerPosition = position;
+    }
+
+    /**
+     * Getter method that returns the width of the maze.
+     *
+     * @return The maze width as an int.
+     */
+    public int getMazeWidth() {
+        return mazeWidth;
+    }
+
+    /**
+     * Getter method that returns the height of the maze.
+     *
+     * @return The maze height as an int.
+     */
+    public int getMazeHeight() {
+        return mazeHeight;
+    }
+
+    /**
+     * Getter method the start position of the maze.
+     *
+     * @return The start position record.
+     */
+    public Position getMazeStartPos() {
+        return mazeStartPos;
+    }
+
+    /**
+     * Getter method that returns the end position of the maze.
+     *
+     * @return The end position record.
+     */
+    public Position getMazeEndPos() {
+        return mazeEndPos;
+    }
+}
@@ -0,0 +1,44 @@
+package mazegen;
+
+import java.util.SplittableRandom;
+
+/**
+ * The recursive backtracker, a randomised depth first search that carves long winding corridors.
+ * It is written as a loop rather than recursion, and instead of a stack each room stores the
+ * direction back to the room it was carved from, so mazes of any size can be carved with one
+ * byte per room.
+ */
+public class BacktrackerAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(MazeGrid grid, SplittableRandom random) {
+        byte[] back = new byte[grid.getRoomCount()];
+        int[] choices = new int[4];
+        int start = 0;
+        int current = start;
+        grid.open(current);
+
+        while (true) {
+            // Collects the directions of the neighbouring rooms that haven't been opened yet.
+            int count = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = grid.neighbour(current, direction);
+                if (next >= 0 && !grid.isOpen(next)) {
+                    choices[count++] = direction;
+                }
+            }
+
+            if (count > 0) {
+                int direction = choices[random.nextInt(count)];
+                grid.openPassage(current, direction);
+                current = grid.neighbour(current, direction);
+                back[current] = (byte) ((direction + 2) & 3);
+            } else if (current == start) {
+                return;
+            } else {
+                // Every neighbour has been opened, so backtracks to the room this was carved from.
+                current = grid.neighbour(current, back[current]);
+            }
+        }
+    }
+}
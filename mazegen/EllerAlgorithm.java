@@ -0,0 +1,227 @@
+package mazegen;
+
+import io.StreamingMazeWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Eller's algorithm, which carves the maze one row of rooms at a time while only remembering
+ * which set each room of the current row belongs to. Rooms in a row are randomly joined to
+ * neighbours in other sets, then every set is carried down into the next row through at least
+ * one passage, and the last row joins every set that is left.
+ * <p>
+ * Because only one row is held at a time, {@link #stream} can write mazes of any height straight
+ * to a file, using memory in proportion to the width alone. The same seed carves the same maze
+ * whether it is streamed or carved into a grid.
+ * </p>
+ */
+public class EllerAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(MazeGrid grid, SplittableRandom random) {
+        int roomsWide = grid.getRoomsWide();
+        try {
+            generate(roomsWide, grid.getRoomsHigh(), random, (roomRow, right, down) -> {
+                int rowStart = roomRow * roomsWide;
+                for (int x = 0; x < roomsWide; x++) {
+                    grid.open(rowStart + x);
+                    if (right[x]) {
+                        grid.openPassage(rowStart + x, 3);
+                    }
+                    if (down[x]) {
+                        grid.openPassage(rowStart + x, 2);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            // Carving into a grid never writes anything.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates a maze and writes it to a file row by row, with the start in the top left room
+     * and the end in the bottom right room.
+     *
+     * @param width The width of the maze, an odd number of at least 3.
+     * @param height The height of the maze, an odd number of at least 3.
+     * @param random The random number generator to make every choice with.
+     * @param filename The path of the file to write, see {@link StreamingMazeWriter}.
+     * @throws IOException If the file can't be written.
+     */
+    public void stream(int width, int height, SplittableRandom random, String filename)
+            throws IOException {
+        long start = width + 1L;
+        long end = (long) (height - 2) * width + width - 2;
+        try (StreamingMazeWriter out = new StreamingMazeWriter(filename, width, height, start,
+                end)) {
+            int roomsHigh = (height - 1) / 2;
+            byte[] roomLine = new byte[width];
+            byte[] wallLine = new byte[width];
+
+            // The top row is all walls.
+            Arrays.fill(wallLine, (byte) '#');
+            out.writeRow(wallLine);
+
+            generate((width - 1) / 2, roomsHigh, random, (roomRow, right, down) -> {
+                Arrays.fill(roomLine, (byte) '#');
+                Arrays.fill(wallLine, (byte) '#');
+                for (int x = 0; x < right.length; x++) {
+                    roomLine[2 * x + 1] = ' ';
+                    if (right[x]) {
+                        roomLine[2 * x + 2] = ' ';
+                    }
+                    if (down[x]) {
+                        wallLine[2 * x + 1] = ' ';
+                    }
+                }
+                if (roomRow == 0) {
+                    roomLine[1] = 'S';
+                }
+                if (roomRow == roomsHigh - 1) {
+                    roomLine[width - 2] = 'E';
+                }
+                // The walls below the last row of rooms are the bottom row, all walls.
+                out.writeRow(roomLine);
+                out.writeRow(wallLine);
+            });
+        }
+    }
+
+    /**
+     * Runs Eller's algorithm, passing each finished row of rooms to the sink.
+     *
+     * @param roomsWide The number of rooms across the maze.
+     * @param roomsHigh The number of rooms down the maze.
+     * @param random The random number generator to make every choice with.
+     * @param sink The sink each row of rooms is passed to.
+     * @throws IOException If the sink can't write a row.
+     */
+    private static void generate(int roomsWide, int roomsHigh, SplittableRandom random,
+                                 RowSink sink) throws IOException {
+        // The set of each room in the row, or -1 for rooms not joined from the row above.
+        int[] set = new int[roomsWide];
+        Arrays.fill(set, -1);
+
+        // Set ids are reused every row, so there are never more than two per room.
+        int[] parent = new int[roomsWide * 2];
+        int[] downCount = new int[roomsWide * 2];
+        int[] seenCount = new int[roomsWide * 2];
+        int[] candidate = new int[roomsWide * 2];
+        int[] renumber = new int[roomsWide * 2];
+        Arrays.fill(renumber, -1);
+        int nextId = 0;
+
+        boolean[] right = new boolean[roomsWide];
+        boolean[] down = new boolean[roomsWide];
+
+        for (int y = 0; y < roomsHigh; y++) {
+            boolean lastRow = y == roomsHigh - 1;
+
+            // Puts every room that wasn't joined from above in a set of its own.
+            for (int x = 0; x < roomsWide; x++) {
+                if (set[x] < 0) {
+                    set[x] = nextId;
+                    parent[nextId] = nextId;
+                    nextId++;
+                }
+            }
+
+            // Randomly joins neighbouring rooms in different sets, the last row joins them all.
+            for (int x = 0; x < roomsWide - 1; x++) {
+                int rootA = find(parent, set[x]);
+                int rootB = find(parent, set[x + 1]);
+                right[x] = rootA != rootB && (lastRow || random.nextBoolean());
+                if (right[x]) {
+                    parent[rootB] = rootA;
+                }
+            }
+            right[roomsWide - 1] = false;
+
+            if (lastRow) {
+                Arrays.fill(down, false);
+            } else {
+                for (int x = 0; x < roomsWide; x++) {
+                    set[x] = find(parent, set[x]);
+                    downCount[set[x]] = 0;
+                    seenCount[set[x]] = 0;
+                }
+                // Randomly carves passages down, keeping a random room of each set in reserve.
+                for (int x = 0; x < roomsWide; x++) {
+                    int root = set[x];
+                    if (random.nextInt(++seenCount[root]) == 0) {
+                        candidate[root] = x;
+                    }
+                    down[x] = random.nextBoolean();
+                    if (down[x]) {
+                        downCount[root]++;
+                    }
+                }
+                // Every set must carry on down, so sets without a passage use their reserve.
+                for (int x = 0; x < roomsWide; x++) {
+                    int root = set[x];
+                    if (downCount[root] == 0) {
+                        down[candidate[root]] = true;
+                        downCount[root] = 1;
+                    }
+                }
+            }
+
+            sink.accept(y, right, down);
+
+            if (!lastRow) {
+                // Carries the sets down, numbering them from zero again so ids stay bounded.
+                int setCount = 0;
+                for (int x = 0; x < roomsWide; x++) {
+                    if (down[x]) {
+                        int root = set[x];
+                        if (renumber[root] < 0) {
+                            renumber[root] = setCount;
+                            parent[setCount] = setCount;
+                            setCount++;
+                        }
+                    }
+                }
+                for (int x = 0; x < roomsWide; x++) {
+                    set[x] = down[x] ? renumber[set[x]] : -1;
+                }
+                Arrays.fill(renumber, 0, nextId, -1);
+                nextId = setCount;
+            }
+        }
+    }
+
+    /**
+     * Finds the root of a set, halving the path to it along the way.
+     *
+     * @param parent The parent of every set id.
+     * @param id The set id.
+     * @return The root set id.
+     */
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Receives each finished row of rooms.
+     */
+    @FunctionalInterface
+    private interface RowSink {
+        /**
+         * Receives a finished row of rooms.
+         *
+         * @param roomRow The row of rooms, from 0 at the top.
+         * @param right Whether each room is joined to the room to its right.
+         * @param down Whether each room is joined to the room below it.
+         * @throws IOException If the row can't be written.
+         */
+        void accept(int roomRow, boolean[] right, boolean[] down) throws IOException;
+    }
+}
@@ -0,0 +1,80 @@
+package mazegen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Randomised Kruskal's algorithm, which visits every wall between two rooms in a random order and
+ * opens it if the rooms either side aren't already joined, tracked with a union-find.
+ * It carves many short dead ends and uses about twelve bytes per room, more than any other
+ * algorithm here.
+ */
+public class KruskalAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(MazeGrid grid, SplittableRandom random) {
+        int roomCount = grid.getRoomCount();
+
+        // Every wall is stored as room * 2, plus one if it is below the room rather than right.
+        int wallCount = 0;
+        int[] walls = new int[roomCount * 2];
+        for (int room = 0; room < roomCount; room++) {
+            grid.open(room);
+            if (grid.neighbour(room, 3) >= 0) {
+                walls[wallCount++] = room * 2;
+            }
+            if (grid.neighbour(room, 2) >= 0) {
+                walls[wallCount++] = room * 2 + 1;
+            }
+        }
+
+        // Shuffles the walls with a Fisher-Yates shuffle.
+        for (int i = wallCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = walls[i];
+            walls[i] = walls[j];
+            walls[j] = swap;
+        }
+
+        // Every room starts as its own set, a negative value is the size of a set's root.
+        int[] parent = new int[roomCount];
+        Arrays.fill(parent, -1);
+        int joined = 1;
+        for (int i = 0; i < wallCount && joined < roomCount; i++) {
+            int room = walls[i] >>> 1;
+            int direction = (walls[i] & 1) == 0 ? 3 : 2;
+            int rootA = find(parent, room);
+            int rootB = find(parent, grid.neighbour(room, direction));
+            if (rootA != rootB) {
+                // Joins the smaller set onto the larger one.
+                if (parent[rootA] > parent[rootB]) {
+                    int swap = rootA;
+                    rootA = rootB;
+                    rootB = swap;
+                }
+                parent[rootA] += parent[rootB];
+                parent[rootB] = rootA;
+                grid.openPassage(room, direction);
+                joined++;
+            }
+        }
+    }
+
+    /**
+     * Finds the root of a room's set, halving the path to it along the way.
+     *
+     * @param parent The parent of every room, or the negative size for roots.
+     * @param room The room.
+     * @return The root of the room's set.
+     */
+    private static int find(int[] parent, int room) {
+        while (parent[room] >= 0) {
+            int next = parent[room];
+            if (parent[next] >= 0) {
+                parent[room] = parent[next];
+            }
+            room = next;
+        }
+        return room;
+    }
+}
@@ -0,0 +1,19 @@
+package mazegen;
+
+import java.util.SplittableRandom;
+
+/**
+ * An algorithm that carves a perfect maze, one where every room can be reached from every other
+ * room by exactly one path, into a grid of walls.
+ */
+public interface MazeAlgorithm {
+
+    /**
+     * Carves a maze into the grid, opening every room. Every random choice must come from the
+     * given random number generator, so the same seed always carves the same maze.
+     *
+     * @param grid The grid to carve, with no rooms opened.
+     * @param random The random number generator to make every choice with.
+     */
+    void carve(MazeGrid grid, SplittableRandom random);
+}
@@ -0,0 +1,200 @@
+package mazegen;
+
+import io.BinaryMazeLoader;
+import io.BinaryMazeWriter;
+import playercore.PackedMoveMap;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Generates perfect mazes that follow every rule the maze loaders check: odd dimensions, walls
+ * all the way round, one start in the top left room and one end in the bottom right room.
+ * Generation is seeded, so the same algorithm, dimensions and seed always give the same maze, and
+ * mazes are carved into a packed move map at one bit per cell, so mazes of hundreds of millions
+ * of cells can be generated.
+ * <p>
+ * Usage: {@code java mazegen.MazeGenerator <algorithm> <width> <height> <seed> <output>}, where
+ * the algorithm is backtracker, kruskal, prim, wilson or eller, and outputs ending in
+ * {@value BinaryMazeLoader#EXTENSION} are written in the binary maze format. Eller's algorithm
+ * streams the maze to the output a row at a time, so it can write text mazes of any size.
+ * </p>
+ */
+public class MazeGenerator {
+
+    /** The number of bytes buffered before being written to a text maze file. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** The algorithm used to carve the maze. */
+    private final MazeAlgorithm algorithm;
+
+    /** The width of the maze. */
+    private final int width;
+
+    /** The height of the maze. */
+    private final int height;
+
+    /** The seed of the random number generator. */
+    private final long seed;
+
+    /**
+     * Creates a maze generator.
+     *
+     * @param algorithm The algorithm used to carve the maze.
+     * @param width The width of the maze, an odd number of at least 3.
+     * @param height The height of the maze, an odd number of at least 3.
+     * @param seed The seed of the random number generator.
+     * @throws IllegalArgumentException If the dimensions are even or too small.
+     */
+    public MazeGenerator(MazeAlgorithm algorithm, int width, int height, long seed) {
+        if (width < 3 || height < 3 || width % 2 == 0 || height % 2 == 0) {
+            throw new IllegalArgumentException("Height and width must be odd numbers"
+                    + " of at least 3.");
+        }
+        if (width == 3 && height == 3) {
+            throw new IllegalArgumentException("A 3x3 maze has no room for both a start"
+                    + " and an end.");
+        }
+        this.algorithm = algorithm;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the maze, opening every room and the walls the algorithm carves through.
+     *
+     * @return The packed move map of the maze.
+     * @throws IllegalArgumentException If the maze has too many cells to hold in a move map.
+     */
+    public PackedMoveMap generate() {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze too large: " + width + "x" + height
+                    + ". Only the eller algorithm can write mazes this large to text files.");
+        }
+        MazeGrid grid = new MazeGrid(width, height);
+        algorithm.carve(grid, new SplittableRandom(seed));
+        return grid.getMoveMap();
+    }
+
+    /**
+     * Getter method for the flat index of the start, in the top left room.
+     *
+     * @return The flat index of the start.
+     */
+    public int getStartIndex() {
+        return width + 1;
+    }
+
+    /**
+     * Getter method for the flat index of the end, in the bottom right room.
+     *
+     * @return The flat index of the end.
+     */
+    public int getEndIndex() {
+        return (height - 2) * width + width - 2;
+    }
+
+    /**
+     * Generates the maze and writes it as a text maze file.
+     *
+     * @param filename The path of the file to write.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeText(String filename) throws IOException {
+        PackedMoveMap map = generate();
+        int start = getStartIndex();
+        int end = getEndIndex();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename),
+                WRITE_BUFFER_SIZE)) {
+            out.write((height + " " + width + "\n").getBytes(StandardCharsets.US_ASCII));
+            byte[] row = new byte[width + 1];
+            row[width] = '\n';
+            for (int y = 0; y < height; y++) {
+                int rowStart = y * width;
+                for (int x = 0; x < width; x++) {
+                    row[x] = map.isOpen(rowStart + x) ? (byte) ' ' : (byte) '#';
+                }
+                if (start / width == y) {
+                    row[start % width] = 'S';
+                }
+                if (end / width == y) {
+                    row[end % width] = 'E';
+                }
+                out.write(row);
+            }
+        }
+    }
+
+    /**
+     * Generates the maze and writes it as a binary maze file.
+     *
+     * @param filename The path of the file to write.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeBinary(String filename) throws IOException {
+        BinaryMazeWriter.write(filename, generate(), getStartIndex(), getEndIndex());
+    }
+
+    /**
+     * Writes the maze to a file, in the binary maze format if the file ends in
+     * {@value BinaryMazeLoader#EXTENSION} and the text format otherwise. Eller's algorithm streams
+     * the maze to the file as it is generated rather than carving it in memory first.
+     *
+     * @param filename The path of the file to write.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(String filename) throws IOException {
+        if (algorithm instanceof EllerAlgorithm eller) {
+            eller.stream(width, height, new SplittableRandom(seed), filename);
+        } else if (filename.endsWith(BinaryMazeLoader.EXTENSION)) {
+            writeBinary(filename);
+        } else {
+            writeText(filename);
+        }
+    }
+
+    /**
+     * Gets the algorithm with the given name.
+     *
+     * @param name The name of the algorithm, backtracker, kruskal, prim, wilson or eller.
+     * @return The algorithm.
+     * @throws IllegalArgumentException If there is no algorithm with the name.
+     */
+    public static MazeAlgorithm algorithm(String name) {
+        return switch (name.toLowerCase()) {
+            case "backtracker" -> new BacktrackerAlgorithm();
+            case "kruskal" -> new KruskalAlgorithm();
+            case "prim" -> new PrimAlgorithm();
+            case "wilson" -> new WilsonAlgorithm();
+            case "eller" -> new EllerAlgorithm();
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + name
+                    + ". Use backtracker, kruskal, prim, wilson or eller.");
+        };
+    }
+
+    /**
+     * Generates a maze and writes it to a file.
+     *
+     * @param args The algorithm, width, height, seed and output file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            System.err.println("Usage: java mazegen.MazeGenerator <algorithm> <width> <height>"
+                    + " <seed> <output>");
+            System.exit(1);
+        }
+        try {
+            MazeGenerator generator = new MazeGenerator(algorithm(args[0]),
+                    Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+            generator.write(args[4]);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Maze cannot be generated because: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
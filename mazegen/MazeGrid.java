@@ -0,0 +1,139 @@
+package mazegen;
+
+import playercore.PackedMoveMap;
+
+/**
+ * The grid a maze is carved into. The maze starts as all walls, and every cell at odd x and y
+ * coordinates is a room that algorithms can open and join to its neighbouring rooms by opening
+ * the wall cell between them. Rooms are addressed by their flat index in the grid of rooms, so
+ * no objects are created per room however large the maze is.
+ */
+public class MazeGrid {
+
+    /** The move map being carved, where a set bit is an opened cell. */
+    private final PackedMoveMap map;
+
+    /** The width of the maze in cells. */
+    private final int width;
+
+    /** The number of rooms across the maze. */
+    private final int roomsWide;
+
+    /** The number of rooms down the maze. */
+    private final int roomsHigh;
+
+    /**
+     * Creates a grid of walls with no rooms opened.
+     *
+     * @param width The width of the maze, an odd number of at least 3.
+     * @param height The height of the maze, an odd number of at least 3.
+     */
+    MazeGrid(int width, int height) {
+        this.map = new PackedMoveMap(width, height);
+        this.width = width;
+        this.roomsWide = (width - 1) / 2;
+        this.roomsHigh = (height - 1) / 2;
+    }
+
+    /**
+     * Getter method for the number of rooms in the grid.
+     *
+     * @return The number of rooms.
+     */
+    public int getRoomCount() {
+        return roomsWide * roomsHigh;
+    }
+
+    /**
+     * Getter method for the number of rooms across the maze.
+     *
+     * @return The number of rooms in each row.
+     */
+    public int getRoomsWide() {
+        return roomsWide;
+    }
+
+    /**
+     * Getter method for the number of rooms down the maze.
+     *
+     * @return The number of rows of rooms.
+     */
+    public int getRoomsHigh() {
+        return roomsHigh;
+    }
+
+    /**
+     * Gets the neighbouring room of a room in the given direction.
+     *
+     * @param room The room.
+     * @param direction The direction, 0 to 3 for [up, left, down, right].
+     * @return The neighbouring room, or -1 if it is outside the grid.
+     */
+    public int neighbour(int room, int direction) {
+        int x = room % roomsWide;
+        int y = room / roomsWide;
+        return switch (direction) {
+            case 0 -> y > 0 ? room - roomsWide : -1;
+            case 1 -> x > 0 ? room - 1 : -1;
+            case 2 -> y < roomsHigh - 1 ? room + roomsWide : -1;
+            default -> x < roomsWide - 1 ? room + 1 : -1;
+        };
+    }
+
+    /**
+     * Checks if a room has been opened.
+     *
+     * @param room The room.
+     * @return True if the room is open, false otherwise.
+     */
+    public boolean isOpen(int room) {
+        return map.isOpen(cellOf(room));
+    }
+
+    /**
+     * Opens a room without joining it to any neighbour.
+     *
+     * @param room The room.
+     */
+    public void open(int room) {
+        map.setOpen(cellOf(room), true);
+    }
+
+    /**
+     * Opens a room, its neighbour in the given direction and the wall between them.
+     *
+     * @param room The room.
+     * @param direction The direction of the neighbour, 0 to 3 for [up, left, down, right].
+     */
+    public void openPassage(int room, int direction) {
+        int cell = cellOf(room);
+        int step = switch (direction) {
+            case 0 -> -width;
+            case 1 -> -1;
+            case 2 -> width;
+            default -> 1;
+        };
+        map.setOpen(cell, true);
+        map.setOpen(cell + step, true);
+        map.setOpen(cell + 2 * step, true);
+    }
+
+    /**
+     * Gets the flat cell index of a room in the maze.
+     *
+     * @param room The room.
+     * @return The flat index of the room's cell.
+     */
+    public int cellOf(int room) {
+        return (2 * (room / roomsWide) + 1) * width + 2 * (room % roomsWide) + 1;
+    }
+
+    /**
+     * Getter method for the move map being carved.
+     *
+     * @return The move map.
+     */
+    PackedMoveMap getMoveMap() {
+        return map;
+    }
+}
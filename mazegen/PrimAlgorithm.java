@@ -0,0 +1,68 @@
+package mazegen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Randomised Prim's algorithm, which grows the maze outwards from the start by repeatedly
+ * joining a random room on its frontier to a random opened neighbour. It carves many short
+ * branches radiating from the start.
+ */
+public class PrimAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(MazeGrid grid, SplittableRandom random) {
+        // The rooms next to the maze that haven't been joined yet, and a bitmap of them.
+        int[] frontier = new int[64];
+        int frontierSize = 0;
+        long[] inFrontier = new long[(grid.getRoomCount() + 63) >>> 6];
+        int[] choices = new int[4];
+
+        grid.open(0);
+        frontierSize = addNeighbours(grid, 0, frontier, frontierSize, inFrontier);
+        while (frontierSize > 0) {
+            // Removes a random frontier room, moving the last room into its place.
+            int index = random.nextInt(frontierSize);
+            int room = frontier[index];
+            frontier[index] = frontier[--frontierSize];
+
+            // Joins the room to one of its neighbours that is already in the maze.
+            int count = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = grid.neighbour(room, direction);
+                if (next >= 0 && grid.isOpen(next)) {
+                    choices[count++] = direction;
+                }
+            }
+            grid.openPassage(room, choices[random.nextInt(count)]);
+
+            if (frontierSize + 4 > frontier.length) {
+                frontier = Arrays.copyOf(frontier, frontier.length << 1);
+            }
+            frontierSize = addNeighbours(grid, room, frontier, frontierSize, inFrontier);
+        }
+    }
+
+    /**
+     * Adds the neighbours of a room that aren't in the maze or the frontier to the frontier.
+     *
+     * @param grid The grid being carved.
+     * @param room The room just joined to the maze.
+     * @param frontier The frontier rooms, with room for at least four more.
+     * @param frontierSize The number of frontier rooms.
+     * @param inFrontier The bitmap of rooms that have been added to the frontier.
+     * @return The new number of frontier rooms.
+     */
+    private static int addNeighbours(MazeGrid grid, int room, int[] frontier, int frontierSize,
+                                     long[] inFrontier) {
+        for (int direction = 0; direction < 4; direction++) {
+            int next = grid.neighbour(room, direction);
+            if (next >= 0 && !grid.isOpen(next)
+                    && (inFrontier[next >>> 6] & (1L << next)) == 0) {
+                inFrontier[next >>> 6] |= 1L << next;
+                frontier[frontierSize++] = next;
+            }
+        }
+        return frontierSize;
+    }
+}
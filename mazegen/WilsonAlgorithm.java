@@ -0,0 +1,51 @@
+package mazegen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Wilson's algorithm, which adds each room to the maze with a loop-erased random walk until the
+ * walk reaches the maze. Every perfect maze is equally likely to be carved, with no bias towards
+ * long corridors or short branches. Each room stores the direction the walk last left it in, so
+ * loops are erased simply by being walked over, with one byte per room.
+ * <p>
+ * The first walks wander for a long time before finding the maze, so this is the slowest
+ * algorithm here on large mazes.
+ * </p>
+ */
+public class WilsonAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(MazeGrid grid, SplittableRandom random) {
+        int roomCount = grid.getRoomCount();
+        byte[] exit = new byte[roomCount];
+        grid.open(random.nextInt(roomCount));
+
+        for (int first = 0; first < roomCount; first++) {
+            if (grid.isOpen(first)) {
+                continue;
+            }
+
+            // Walks randomly until the maze is reached, overwriting the exit of revisited rooms.
+            int room = first;
+            while (!grid.isOpen(room)) {
+                int direction = random.nextInt(4);
+                int next = grid.neighbour(room, direction);
+                if (next >= 0) {
+                    exit[room] = (byte) direction;
+                    room = next;
+                }
+            }
+
+            // Carves the loop-erased walk by following the last exit taken from each room, until
+            // the room that was already in the maze.
+            room = first;
+            boolean reached = false;
+            while (!reached) {
+                int next = grid.neighbour(room, exit[room]);
+                reached = grid.isOpen(next);
+                grid.openPassage(room, exit[room]);
+                room = next;
+            }
+        }
+    }
+}
@@ -4,196 +4,208 @@ import cli.Display;
 import gui.Player2D;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import mazecore.CheckPosition;
-import mazecore.Maze;
+import mazecore.MazeContext;
 import mazecore.Position;
+import solvercore.BfsSolver;
+import solvercore.NextMoveField;
+import solvercore.SolverStrategy;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A class which solves the maze automatically using the breadth first search algorithm, implements
- * Runnable so the maze can be solved (almost instantly).
+ * A class which solves the maze automatically, by default using the breadth first search
+ * algorithm, implements Runnable so the maze can be solved (almost instantly).
+ * The search itself is delegated to a SolverStrategy, which can be swapped with setStrategy.
  */
 public class MazeSolver implements Runnable {
     /** A boolean value used to determine whether to move by the GUI or CLI method.*/
     private boolean guiSolve = true;
 
     /** A list of positions that make up the quickest path through the maze, initially empty. */
-    private List<Position> quickestPath = new ArrayList<>();
+    private volatile List<Position> quickestPath = new ArrayList<>();
 
-    /** The start position of the maze converted to a BfsPosition object. */
-    private final BfsPosition mazeStart = new BfsPosition(Maze.getMazeStartPos(), null);
+    /** The maze context that is solved and whose player is moved. */
+    private final MazeContext context;
 
-    /** The end position of the maze converted to a BfsPosition object. */
-    private final BfsPosition mazeEnd = new BfsPosition(Maze.getMazeEndPos(), null);
+    /** The strategy used to search for the quickest path, breadth first search by default. */
+    private SolverStrategy strategy = new BfsSolver();
 
-    /**
-     * Solves the maze using breadth first search by creating a queue of BfsPositions and
-     * exploring the maze until the end position is reached or every path has been explored.
-     * If the end position is reached, the quickest path is reconstructed based on the parent of
-     * each position.
-     */
-    public void bfsSolve() {
-
-        // Create a queue of BfsPositions to navigate the maze and find the quickest path.
-        Queue<BfsPosition> queue = new LinkedList<>();
-
-        // Mark the start position as visited and adds it to the queue.
-        PastMoves.addMove(mazeStart.position);
-        queue.add(mazeStart);
+    /** Whether solving builds a next move field from the exit instead of a single path. */
+    private boolean nextMoveFieldMode = false;
 
-        // Continue until the queue is empty.
-        while (!queue.isEmpty()) {
-            // Get the current position from the head of the queue.
-            BfsPosition currentPos = queue.poll();
+    /** The field of moves towards the exit, only built in next move field mode. */
+    private volatile NextMoveField nextMoveField = null;
 
-            // If the current position is the end position, reconstruct the path and return.
-            if (currentPos.position.equals(mazeEnd.position)) {
-                reconstructPath(currentPos, null);
-                return;
-            }
+    /** The index in the quickest path the player was last found at. */
+    private int pathCursor = 0;
 
-            // Explore neighbors of the current position.
-            for (BfsPosition neighbor : checkNewNeighbours(currentPos)) {
-                // Check if the neighbor has been visited.
-                if (!PastMoves.checkMove(neighbor.position)) {
-                    // Mark neighbor as visited.
-                    PastMoves.addMove(neighbor.position);
-                    // Set the current position as the parent of its neighbor.
-                    neighbor.parent = currentPos;
-                    // Add the neighbor to the queue.
-                    queue.add(neighbor);
-                }
-            }
-        }
-
-        // If the queue is empty and the end position has not been reached, the maze is
-        // assumed to be unsolvable.
-        System.err.println("Maze is unsolvable.");
+    /**
+     * Creates a solver for the current maze context.
+     */
+    public MazeSolver() {
+        this(MazeContext.getCurrent());
     }
 
     /**
-     * Checks cells around the given position to see if they are valid moves, if they are, they are
-     * added to the list of neighbors to be returned.
+     * Creates a solver for the given maze context.
      *
-     * @param current The position to check around.
-     * @return A list of neighbour cells that can be reach with one valid move.
-     */
-    private List<BfsPosition> checkNewNeighbours(BfsPosition current) {
-        // Create a list of neighbours, stored as BfsPositions, to be returned.
-        List<BfsPosition> neighbors = new ArrayList<>();
-
-        // Use the CheckPosition class to check if the cells around the current position are valid
-        // moves.
-        boolean[] validNeighbours = CheckPosition.get(current.position, 4);
-
-        // Iterate through the validNeighbours array and add the cells that can be moved to,
-        // to the list of neighbours to be returned.
-        for (int i = 0; i < validNeighbours.length; i++) {
-            BfsPosition pos = current;
-            if (i == 0 && validNeighbours[i]) {
-                pos = new BfsPosition(
-                        new Position(current.position.getX(), current.position.getY() - 1), current);
-            } else if (i == 1 && validNeighbours[i]) {
-                pos = new BfsPosition(
-                        new Position(current.position.getX() - 1, current.position.getY()), current);
-            } else if (i == 2 && validNeighbours[i]) {
-                pos = new BfsPosition(
-                        new Position(current.position.getX(), current.position.getY() + 1), current);
-            } else if (i == 3 && validNeighbours[i]) {
-                pos = new BfsPosition(
-                        new Position(current.position.getX() + 1, current.position.getY()), current);
-            }
-            neighbors.add(pos);
-        }
-        return neighbors;
+     * @param context The maze context to solve.
+     */
+    public MazeSolver(MazeContext context) {
+        this.context = context;
     }
 
     /**
-     * A recursive method to reconstruct the quickest path from the end of the maze to the start,
-     * using the parent positions of each position. Exits when the start position is reached.
-     *
-     * @param current The position that is currently being processed.
-     * @param path The list of positions that make up the quickest path, passed in recursively for
-     *             continuity.
-     */
-    private void reconstructPath(BfsPosition current, List<Position> path) {
-        // If the path is null, create a new list.
-        if (path == null) {
-            path = new ArrayList<>();
+     * Solves the maze using the current solver strategy, exploring the maze until the end
+     * position is reached or every path has been explored.
+     * If the end position is reached, the quickest path is converted from flat cell indices
+     * back to positions. In next move field mode, a next move field is built from the end position
+     * instead and the quickest path is read from it.
+     */
+    public void solve() {
+        if (nextMoveFieldMode) {
+            fieldSolve();
+        } else {
+            solveWith(strategy);
         }
+    }
 
-        // Add current position to the beginning of the path list.
-        path.add(0, current.position);
-
-        // If the current position is the start position or the current position has no parent,
-        // set the quickest path to the path list and return, finishing the recursion.
-        if (current.equals(mazeStart) || current.parent == null) {
-            quickestPath = path;
-            return;
-        }
+    /**
+     * Builds a next move field with a single breadth first search backwards from the end position,
+     * so the way to the end can be found from any cell without solving again.
+     * The quickest path from the start position is then read from the field.
+     */
+    public void fieldSolve() {
+        PackedMoveMap map = context.getMoveMap();
+        Position start = context.getMazeStartPos();
+        Position end = context.getMazeEndPos();
+
+        NextMoveField field = NextMoveField.build(map, map.index(end.getX(), end.getY()));
+        nextMoveField = field;
+        storePath(map, field.pathFrom(start.getX(), start.getY()));
+    }
 
-        // Call the method again with the current position's parent and the path list.
-        reconstructPath(current.parent, path);
+    /**
+     * Solves the maze using breadth first search, regardless of the current solver strategy.
+     */
+    public void bfsSolve() {
+        solveWith(new BfsSolver());
     }
 
     /**
-     * An extension of the Position record that adds a parent position, which is needed to implement
-     * breadth first search.
+     * Solves the maze with the given strategy and stores the quickest path it finds.
+     *
+     * @param solverStrategy The strategy used to search for the quickest path.
      */
-    private static class BfsPosition {
-        /** The position record for this BfsPosition. */
-        private final Position position;
+    private void solveWith(SolverStrategy solverStrategy) {
+        PackedMoveMap map = context.getMoveMap();
+        Position start = context.getMazeStartPos();
+        Position end = context.getMazeEndPos();
+
+        int[] path = solverStrategy.solve(map,
+                map.index(start.getX(), start.getY()), map.index(end.getX(), end.getY()));
+        storePath(map, path);
+    }
 
-        /** The parent position of this BfsPosition. */
-        private BfsPosition parent;
+    /**
+     * Converts a path of flat cell indices back to positions and stores it as the quickest path.
+     *
+     * @param map The move map the path was found in.
+     * @param path The flat indices of the path, or an empty array if the maze is unsolvable.
+     */
+    private void storePath(PackedMoveMap map, int[] path) {
+        // If the search ran out of cells before reaching the end position, the maze is
+        // assumed to be unsolvable.
+        if (path.length == 0) {
+            System.err.println("Maze is unsolvable.");
+            return;
+        }
 
-        public BfsPosition(Position position, BfsPosition parent) {
-            this.position = position;
-            this.parent = parent;
+        List<Position> positions = new ArrayList<>(path.length);
+        for (int cell : path) {
+            positions.add(new Position(map.xOf(cell), map.yOf(cell)));
         }
+        quickestPath = positions;
     }
 
     /**
      * Uses the positions in the quickest path list to move the player through the maze. Only
      * works if player is already on the quickest path, for example at the starting position.
+     * If a next move field has been built, the player is moved to the end from wherever they are.
+     * Every step is made straight away, see {@link SolutionPlayback} to make them over time.
      */
     public void move() {
-        // Checks if the player is on the quickest path, if not return.
-        boolean onPath = false;
-        for (Position p : quickestPath) {
-            if (PlayerPosition.get().equals(p)) {
-                onPath = true;
-                break;
-            }
+        // Stops as soon as a step doesn't move the player, so a refused move can't loop forever.
+        boolean moved = step();
+        while (moved) {
+            moved = step();
         }
-        if (!onPath) {
-            return;
+    }
+
+    /**
+     * Moves the player one step along the way to the end, see {@link #move()}.
+     *
+     * @return True if the player was moved, false if there is no move to make or the move
+     *         failed.
+     */
+    public boolean step() {
+        char direction = nextMove();
+        if (direction == 0) {
+            return false;
+        }
+        Position before = context.getPlayerPosition();
+        movePlayer(direction);
+        return !context.getPlayerPosition().equals(before);
+    }
+
+    /**
+     * Gets the move that takes the player one step closer to the end, from the next move field if
+     * one has been built, or from the quickest path otherwise.
+     *
+     * @return The move as 'w', 'a', 's' or 'd', or 0 if the player is at the end or isn't on
+     *         the quickest path.
+     */
+    public char nextMove() {
+        if (nextMoveField != null) {
+            return hint();
         }
 
-        // Iterates through the quickest path list and move the player in the appropriate direction.
-        for (int i = 0; i < quickestPath.size() - 1; i++) {
-            Position currentPos = quickestPath.get(i);
-            Position nextPos = quickestPath.get(i + 1);
-
-            // Determines direction based on current and next positions.
-            if (nextPos.getX() == currentPos.getX()
-                    && nextPos.getY() == currentPos.getY() - 1) {
-                movePlayer('w');
-            } else if (nextPos.getX() == currentPos.getX() - 1
-                    && nextPos.getY() == currentPos.getY()) {
-                movePlayer('a');
-            } else if (nextPos.getX() == currentPos.getX()
-                    && nextPos.getY() == currentPos.getY() + 1) {
-                movePlayer('s');
-            } else if (nextPos.getX() == currentPos.getX() + 1
-                    && nextPos.getY() == currentPos.getY()) {
-                movePlayer('d');
+        // Finds the player on the quickest path, checking where they were last found first so
+        // following the path doesn't search it at every step.
+        List<Position> path = quickestPath;
+        Position position = context.getPlayerPosition();
+        if (pathCursor >= path.size() || !path.get(pathCursor).equals(position)) {
+            pathCursor = path.indexOf(position);
+            if (pathCursor < 0) {
+                pathCursor = 0;
+                return 0;
             }
         }
+        if (pathCursor == path.size() - 1) {
+            return 0;
+        }
+        Position currentPos = path.get(pathCursor);
+        Position nextPos = path.get(pathCursor + 1);
+        pathCursor++;
+
+        // Determines direction based on current and next positions.
+        if (nextPos.getX() == currentPos.getX() && nextPos.getY() == currentPos.getY() - 1) {
+            return 'w';
+        } else if (nextPos.getX() == currentPos.getX() - 1
+                && nextPos.getY() == currentPos.getY()) {
+            return 'a';
+        } else if (nextPos.getX() == currentPos.getX()
+                && nextPos.getY() == currentPos.getY() + 1) {
+            return 's';
+        } else if (nextPos.getX() == currentPos.getX() + 1
+                && nextPos.getY() == currentPos.getY()) {
+            return 'd';
+        }
+        return 0;
     }
 
     /**
@@ -206,17 +218,79 @@ public class MazeSolver implements Runnable {
         if (guiSolve) {
             Player2D.getPlayer().move(direction);
         } else {
-            int[] moveResults = Movement.move(direction);
+            int[] moveResults = Movement.move(context, direction);
             Display.redrawPlayer(new Position(moveResults[0], moveResults[1]),
                     new Position(moveResults[2], moveResults [3]));
         }
     }
 
 
+    /**
+     * Starts solving the maze on a background thread and returns straight away.
+     * The returned future completes with the quickest path as soon as the search finishes, or
+     * with an empty list the moment the search runs out of cells and the maze is found to be
+     * unsolvable. Cancelling the future interrupts the search.
+     *
+     * @return A future holding the quickest path through the maze.
+     */
+    public CompletableFuture<List<Position>> solveAsync() {
+        CompletableFuture<List<Position>> result = new CompletableFuture<>();
+        Thread solverThread = new Thread(() -> {
+            try {
+                solve();
+                result.complete(quickestPath);
+            } catch (CancellationException ignored) {
+                // The future has already been cancelled or timed out, so there's no one to tell.
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "MazeSolver");
+        // Sets the thread to be a background thread, so it stops when the main thread stops.
+        solverThread.setDaemon(true);
+
+        // Stops the search if the future is cancelled or times out before it finishes.
+        result.whenComplete((path, error) -> {
+            if (error != null) {
+                solverThread.interrupt();
+            }
+        });
+        solverThread.start();
+        return result;
+    }
+
+    /**
+     * Starts solving the maze on a background thread, see {@link #solveAsync()}. If the search
+     * doesn't finish within the timeout, it is stopped and the future completes exceptionally
+     * with a TimeoutException.
+     *
+     * @param timeout How long to wait for the search to finish.
+     * @param unit The unit of the timeout.
+     * @return A future holding the quickest path through the maze.
+     */
+    public CompletableFuture<List<Position>> solveAsync(long timeout, TimeUnit unit) {
+        return solveAsync().orTimeout(timeout, unit);
+    }
+
+    /**
+     * Gets the move that takes the player one step closer to the end from their current
+     * position, read straight from the next move field.
+     *
+     * @return The move as 'w', 'a', 's' or 'd', or 0 if there is no next move field, the player
+     *         is at the end or the end can't be reached from the player's position.
+     */
+    public char hint() {
+        NextMoveField field = nextMoveField;
+        if (field == null) {
+            return 0;
+        }
+        Position position = context.getPlayerPosition();
+        return field.nextMove(position.getX(), position.getY());
+    }
+
     @Override
     public void run() {
         // Starts solving the maze as soon as the thread is started.
-        bfsSolve();
+        solve();
     }
 
     /**
@@ -237,5 +311,25 @@ public class MazeSolver implements Runnable {
     public void setGuiSolve(boolean guiSolve) {
         this.guiSolve = guiSolve;
     }
+
+    /**
+     * Setter method that sets the strategy used to search for the quickest path, for example
+     * an AStarSolver instead of the default BfsSolver.
+     *
+     * @param strategy The solver strategy to use.
+     */
+    public void setStrategy(SolverStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Setter method that sets whether solving builds a next move field from the end position, so
+     * the player can be moved to the end from anywhere rather than only from the quickest path.
+     *
+     * @param nextMoveFieldMode True if solving should build a next move field, false otherwise.
+     */
+    public void setNextMoveFieldMode(boolean nextMoveFieldMode) {
+        this.nextMoveFieldMode = nextMoveFieldMode;
+    }
 }
 
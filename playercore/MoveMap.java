@@ -1,31 +1,29 @@
 package playercore;
 
-import mazecore.Maze;
+import mazecore.MazeContext;
 import mazecore.Position;
 
 /**
- * A 2D array of booleans that represents the maze.
- * Takes the maze array and converts it to a moveMap array, wherein everything but the walls are
- * marked as true (valid moves).
+ * A bit-packed map that represents the maze, see {@link PackedMoveMap}.
+ * Takes the maze array and converts it to a move map, wherein everything but the walls are
+ * marked as valid moves. Every method acts on the current MazeContext.
  */
 public class MoveMap {
-    /** The move map that stores where valid moves. */
-    private static boolean[][] map;
 
     /**
-     * Creates the move map by analysing the maze, creating
-     * a matching 2D boolean array and marking any position that isn't a wall as a valid move.
+     * Creates the move map by analysing the maze, marking any position that isn't a wall as a
+     * valid move.
      */
     public static void makeMoveMap() {
-        map = new boolean[Maze.getMazeHeight()][Maze.getMazeWidth()];
-        for (int y = 0; y < Maze.getMazeHeight(); y++) {
-            for (int x = 0; x < Maze.getMazeWidth(); x++) {
-                // Everything but the walls, represented by '#' are valid moves.
-                if (Maze.getComponentAt(new Position(x, y)) != '#') {
-                    map[y][x] = true;
-                }
-            }
-        }
+        MazeContext.getCurrent().makeMoveMap();
+    }
+
+    /**
+     * Builds the table of neighbour masks of every cell, see
+     * {@link mazecore.CheckPosition#mask(Position)}. Must be called after makeMoveMap.
+     */
+    public static void makeNeighbourMasks() {
+        MazeContext.getCurrent().makeNeighbourMasks();
     }
 
     /**
@@ -35,13 +33,27 @@ public class MoveMap {
      * @return True if the move is valid, false otherwise.
      */
     public static boolean validMove(Position position) {
-        // Tries to return the boolean at the given position, if the position is out of bounds it
-        // catches the exception and returns false.
-        try {
-            return map[position.getY()][position.getX()];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return false;
-        }
+        return MazeContext.getCurrent().validMove(position);
+    }
+
+    /**
+     * Checks if the move to the cell at the given flat index (y * width + x) is valid. The index
+     * must be within the maze.
+     *
+     * @param index The flat index of the cell to check.
+     * @return True if the move is valid, false otherwise.
+     */
+    public static boolean validMove(int index) {
+        return MazeContext.getCurrent().getMoveMap().isOpen(index);
+    }
+
+    /**
+     * Getter method that returns the packed move map of the current maze.
+     *
+     * @return The packed move map.
+     */
+    public static PackedMoveMap getPackedMap() {
+        return MazeContext.getCurrent().getMoveMap();
     }
 
 }
@@ -1,5 +1,6 @@
 package playercore;
 
+import mazecore.MazeContext;
 import mazecore.Position;
 
 import java.util.Arrays;
@@ -20,26 +21,37 @@ public class Movement {
      * @return An array of integers representing the player's old and new positions.
      */
     public static int[] move(char direction) {
+        return move(MazeContext.getCurrent(), direction);
+    }
+
+    /**
+     * Moves the player of the given context in the given direction, see {@link #move(char)}.
+     *
+     * @param context The maze context the player belongs to.
+     * @param direction The direction to move the player in.
+     * @return An array of integers representing the player's old and new positions.
+     */
+    public static int[] move(MazeContext context, char direction) {
         // Creates a copy of the player's current position and stores it in two arrays for
         // easy access.
-        int[] oldPosition = new int[]{
-                PlayerPosition.get().getX(), PlayerPosition.get().getY()};
+        Position playerPosition = context.getPlayerPosition();
+        int[] oldPosition = new int[]{playerPosition.getX(), playerPosition.getY()};
         int[] newPosition = Arrays.copyOf(oldPosition, 2);
 
         // Updates the new position based on the direction provided.
         switch (direction) {
-            case 'w' -> newPosition[1] = PlayerPosition.get().getY() - 1;
-            case 'a' -> newPosition[0] = PlayerPosition.get().getX() - 1;
-            case 's' -> newPosition[1] = PlayerPosition.get().getY() + 1;
-            case 'd' -> newPosition[0] = PlayerPosition.get().getX() + 1;
+            case 'w' -> newPosition[1] = playerPosition.getY() - 1;
+            case 'a' -> newPosition[0] = playerPosition.getX() - 1;
+            case 's' -> newPosition[1] = playerPosition.getY() + 1;
+            case 'd' -> newPosition[0] = playerPosition.getX() + 1;
             // If an invalid direction is given, print an error.
             default -> System.err.println("Unexpected value in Movement class: " + direction);
         }
         // If the move is valid, updates the player's position, adds the move to the past moves map
         // and returns the old position and the new position. Else returns the old position twice.
-        if (MoveMap.validMove(new Position(newPosition[0], newPosition[1]))) {
-            PastMoves.addMove(new Position(newPosition[0], newPosition[1]));
-            PlayerPosition.set(new Position(newPosition[0], newPosition[1]));
+        if (context.validMove(new Position(newPosition[0], newPosition[1]))) {
+            context.addMove(new Position(newPosition[0], newPosition[1]));
+            context.setPlayerPosition(new Position(newPosition[0], newPosition[1]));
             return new int[]{oldPosition[0], oldPosition[1], newPosition[0], newPosition[1]};
         } else {
             return new int[]{oldPosition[0], oldPosition[1], oldPosition[0], oldPosition[1]};
@@ -0,0 +1,254 @@
+package playercore;
+
+import java.nio.LongBuffer;
+
+/**
+ * A bit-packed move map, where every cell of the maze is stored as a single bit in an array of
+ * longs, in row-major order. A set bit marks a valid move (anything but a wall).
+ * Cells are addressed either by their x and y coordinates or by their flat index
+ * (y * width + x), so no Position objects are needed to query the map.
+ */
+public class PackedMoveMap {
+
+    /** The number of bits in each word, as a shift (2^6 = 64). */
+    private static final int WORD_SHIFT = 6;
+
+    /** The width of the maze. */
+    private final int width;
+
+    /** The height of the maze. */
+    private final int height;
+
+    /** The bits of the map, one per cell. */
+    private final long[] words;
+
+    /**
+     * Creates an empty move map, where every cell is a wall.
+     *
+     * @param width The width of the maze.
+     * @param height The height of the maze.
+     */
+    public PackedMoveMap(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid move map dimensions: "
+                    + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.words = new long[(int) (((long) width * height + 63) >>> WORD_SHIFT)];
+    }
+
+    /**
+     * Creates a move map straight from the loaded maze array in a single pass, marking any
+     * position that isn't a wall as a valid move.
+     *
+     * @param maze The maze 2D char array.
+     * @return The packed move map of the maze.
+     */
+    public static PackedMoveMap fromMaze(char[][] maze) {
+        PackedMoveMap map = new PackedMoveMap(maze[0].length, maze.length);
+        int index = 0;
+        for (char[] row : maze) {
+            for (char component : row) {
+                // Everything but the walls, represented by '#' are valid moves.
+                if (component != '#') {
+                    map.words[index >>> WORD_SHIFT] |= 1L << index;
+                }
+                index++;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Creates a move map from its words, as written by {@link #copyWords(LongBuffer)}, in a
+     * single bulk copy.
+     *
+     * @param width The width of the maze.
+     * @param height The height of the maze.
+     * @param source The buffer to read the words from, starting at its position.
+     * @return The move map.
+     */
+    public static PackedMoveMap fromWords(int width, int height, LongBuffer source) {
+        PackedMoveMap map = new PackedMoveMap(width, height);
+        source.get(map.words);
+        return map;
+    }
+
+    /**
+     * Copies the words of the map, one bit per cell in row-major order, into a buffer in a
+     * single bulk copy.
+     *
+     * @param target The buffer to write the words to, starting at its position.
+     */
+    public void copyWords(LongBuffer target) {
+        target.put(words);
+    }
+
+    /**
+     * Checks if the cell at the given index is a valid move. The index must be within the map.
+     *
+     * @param index The flat index of the cell.
+     * @return True if the move is valid, false otherwise.
+     */
+    public boolean isOpen(int index) {
+        return (words[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks if the cell at the given coordinates is a valid move. Coordinates outside the map are
+     * never valid moves.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return True if the move is valid, false otherwise.
+     */
+    public boolean isOpen(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && isOpen(y * width + x);
+    }
+
+    /**
+     * Marks the cell at the given index as a valid move or a wall.
+     *
+     * @param index The flat index of the cell.
+     * @param open True to mark the cell as a valid move, false to mark it as a wall.
+     */
+    public void setOpen(int index, boolean open) {
+        // Clears the bit and sets it again without branching, so mixed rows of walls and
+        // valid moves don't cause branch mispredictions.
+        long bit = 1L << index;
+        int word = index >>> WORD_SHIFT;
+        words[word] = (words[word] & ~bit) | (open ? bit : 0L);
+    }
+
+    /**
+     * Gets which of the eight neighbours of a cell are valid moves, as a bitmask with bit i set
+     * if neighbour i of [up, top left, left, bottom left, down, bottom right, right, top right]
+     * is open, the same order as {@link mazecore.CheckPosition}. Neighbours outside the map are
+     * never open, and the cell itself can be anywhere, even outside the map.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The neighbour mask, from 0 to 255.
+     */
+    public int neighbourMask(int x, int y) {
+        if (x > 0 && y > 0 && x < width - 1 && y < height - 1) {
+            // Every neighbour of an inner cell is inside the map, so no bounds are checked.
+            int index = y * width + x;
+            int above = index - width;
+            int below = index + width;
+            return bit(above)
+                    | bit(above - 1) << 1
+                    | bit(index - 1) << 2
+                    | bit(below - 1) << 3
+                    | bit(below) << 4
+                    | bit(below + 1) << 5
+                    | bit(index + 1) << 6
+                    | bit(above + 1) << 7;
+        }
+        // Cells on or outside the border have neighbours outside the map.
+        return (isOpen(x, y - 1) ? 1 : 0)
+                | (isOpen(x - 1, y - 1) ? 1 << 1 : 0)
+                | (isOpen(x - 1, y) ? 1 << 2 : 0)
+                | (isOpen(x - 1, y + 1) ? 1 << 3 : 0)
+                | (isOpen(x, y + 1) ? 1 << 4 : 0)
+                | (isOpen(x + 1, y + 1) ? 1 << 5 : 0)
+                | (isOpen(x + 1, y) ? 1 << 6 : 0)
+                | (isOpen(x + 1, y - 1) ? 1 << 7 : 0);
+    }
+
+    /**
+     * Builds a table of the neighbour mask of every cell, see {@link #neighbourMask(int, int)},
+     * indexed by flat cell index. It takes one byte per cell, so it is only worth building when
+     * masks are read many times, such as for drawing.
+     *
+     * @return The neighbour mask of every cell.
+     */
+    public byte[] neighbourMasks() {
+        byte[] masks = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            for (int x = 0; x < width; x++) {
+                masks[rowStart + x] = (byte) neighbourMask(x, y);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Gets the cell at the given index as a single bit.
+     *
+     * @param index The flat index of the cell.
+     * @return 1 if the cell is a valid move, 0 otherwise.
+     */
+    private int bit(int index) {
+        return (int) (words[index >>> WORD_SHIFT] >>> index) & 1;
+    }
+
+    /**
+     * Converts x and y coordinates to a flat cell index.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The flat index of the cell.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Gets the x coordinate of the cell at the given index.
+     *
+     * @param index The flat index of the cell.
+     * @return The x coordinate of the cell.
+     */
+    public int xOf(int index) {
+        return index % width;
+    }
+
+    /**
+     * Gets the y coordinate of the cell at the given index.
+     *
+     * @param index The flat index of the cell.
+     * @return The y coordinate of the cell.
+     */
+    public int yOf(int index) {
+        return index / width;
+    }
+
+    /**
+     * Getter method that returns the width of the map.
+     *
+     * @return The map width as an int.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter method that returns the height of the map.
+     *
+     * @return The map height as an int.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter method that returns the number of cells in the map.
+     *
+     * @return The number of cells (width * height).
+     */
+    public int getCellCount() {
+        return width * height;
+    }
+
+    /**
+     * Getter method that returns the number of words the cells are packed into.
+     *
+     * @return The number of 64 bit words.
+     */
+    public int getWordCount() {
+        return words.length;
+    }
+}
@@ -1,31 +1,21 @@
 package playercore;
 
-import mazecore.Maze;
+import mazecore.MazeContext;
 import mazecore.Position;
 
-import java.util.Arrays;
-
 /**
  * A class which stores and provides access to the player's past moves in the maze.
- * PastMoves is stored in the form of a 2D array of booleans.
+ * PastMoves is stored in the form of a bitset with a bit per cell. Every method acts on the
+ * current MazeContext.
  */
 public class PastMoves {
 
-    /** The player's past moves in the maze. */
-    private static boolean[][] map;
-
     /**
-     * Initialises the player's past moves in the maze, by creating a new 2D Boolean Array that
-     * matches the size of the original maze array, except all the positions are marked as false to
-     * indicate no moves have been made yet.
+     * Initialises the player's past moves in the maze, by creating a bitset with a bit for every
+     * cell of the original maze, all clear to indicate no moves have been made yet.
      */
     public static void pastMovesMap() {
-        map = new boolean[Maze.getMazeHeight()][Maze.getMazeWidth()];
-        for (int y = 0; y < Maze.getMazeHeight(); y++) {
-            for (int x = 0; x < Maze.getMazeWidth(); x++) {
-                map[y][x] = false;
-            }
-        }
+        MazeContext.getCurrent().pastMovesMap();
     }
 
     /**
@@ -34,20 +24,14 @@ public class PastMoves {
      * @param position The position of the move.
      */
     public static void addMove(Position position) {
-        try {
-            map[position.getY()][position.getX()] = true;
-        } catch (ArrayIndexOutOfBoundsException ignored) {
-            // If the move is invalid, it is ignored.
-        }
+        MazeContext.getCurrent().addMove(position);
     }
 
     /**
      * Resets the player's past moves map.
      */
     public static void resetMap() {
-        for (boolean[] booleans : map) {
-            Arrays.fill(booleans, false);
-        }
+        MazeContext.getCurrent().resetMap();
     }
 
     /**
@@ -57,21 +41,16 @@ public class PastMoves {
      * @return True if the position has been visited before, false otherwise.
      */
     public static boolean checkMove(Position position) {
-        try {
-            return map[position.getY()][position.getX()];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return false;
-        }
+        return MazeContext.getCurrent().checkMove(position);
     }
 
     /**
-     * Getter method that returns the past moves map as a 2D Boolean Array.
+     * Getter method that returns a copy of the past moves map as a 2D Boolean Array, only meant
+     * for small mazes.
      *
      * @return A 2D Boolean Array that represents the past moves map.
      */
     public static boolean[][] getPastMovesMap() {
-        return map;
+        return MazeContext.getCurrent().getPastMovesMap();
     }
 }
-
-
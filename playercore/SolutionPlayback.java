@@ -0,0 +1,140 @@
+package playercore;
+
+/**
+ * Plays the solver's way to the end back a few steps at a time, rather than moving the player
+ * through the whole path at once. The GUI advances the playback once a frame and the CLI once a
+ * tick, so the work done each frame or tick stays the same however long the path is. Playback
+ * can be paused, resumed and sped up or slowed down while it runs.
+ */
+public class SolutionPlayback {
+
+    /** The number of steps made each frame or tick by default. */
+    public static final int DEFAULT_STEPS_PER_FRAME =
+            Math.max(1, Integer.getInteger("mazegame.playbackSteps", 1));
+
+    /** The most steps that can be made each frame or tick. */
+    public static final int MAX_STEPS_PER_FRAME = 1024;
+
+    /** The solver that makes each step. */
+    private final MazeSolver solver;
+
+    /** The number of steps made each frame or tick. */
+    private int stepsPerFrame;
+
+    /** Whether the playback is paused. */
+    private boolean paused = false;
+
+    /** Whether the player has reached the end, or can't be moved any further. */
+    private boolean finished = false;
+
+    /**
+     * Creates a playback of the given solver's way to the end, making the default number of
+     * steps each frame or tick.
+     *
+     * @param solver The solver that makes each step.
+     */
+    public SolutionPlayback(MazeSolver solver) {
+        this(solver, DEFAULT_STEPS_PER_FRAME);
+    }
+
+    /**
+     * Creates a playback of the given solver's way to the end.
+     *
+     * @param solver The solver that makes each step.
+     * @param stepsPerFrame The number of steps made each frame or tick.
+     */
+    public SolutionPlayback(MazeSolver solver, int stepsPerFrame) {
+        this.solver = solver;
+        setStepsPerFrame(stepsPerFrame);
+    }
+
+    /**
+     * Makes the next frame or tick of steps, unless the playback is paused or finished.
+     *
+     * @return True if there may be more steps to make, false once the playback is finished.
+     */
+    public boolean advance() {
+        if (finished || paused) {
+            return !finished;
+        }
+        for (int i = 0; i < stepsPerFrame; i++) {
+            if (!solver.step()) {
+                finished = true;
+                break;
+            }
+        }
+        return !finished;
+    }
+
+    /**
+     * Pauses the playback, so advancing it makes no steps until it is resumed.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * Resumes the playback after it has been paused.
+     */
+    public void resume() {
+        paused = false;
+    }
+
+    /**
+     * Pauses the playback if it is running, or resumes it if it is paused.
+     */
+    public void togglePause() {
+        paused = !paused;
+    }
+
+    /**
+     * Doubles the number of steps made each frame or tick, up to the maximum.
+     */
+    public void faster() {
+        setStepsPerFrame(stepsPerFrame * 2);
+    }
+
+    /**
+     * Halves the number of steps made each frame or tick, down to one.
+     */
+    public void slower() {
+        setStepsPerFrame(stepsPerFrame / 2);
+    }
+
+    /**
+     * Setter method for the number of steps made each frame or tick, kept between one and the
+     * maximum.
+     *
+     * @param steps The number of steps made each frame or tick.
+     */
+    public void setStepsPerFrame(int steps) {
+        stepsPerFrame = Math.max(1, Math.min(steps, MAX_STEPS_PER_FRAME));
+    }
+
+    /**
+     * Getter method for the number of steps made each frame or tick.
+     *
+     * @return The number of steps made each frame or tick.
+     */
+    public int getStepsPerFrame() {
+        return stepsPerFrame;
+    }
+
+    /**
+     * Getter method for whether the playback is paused.
+     *
+     * @return True if the playback is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Getter method for whether the playback is finished.
+     *
+     * @return True if the player has reached the end or can't be moved any further.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
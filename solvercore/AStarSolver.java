@@ -0,0 +1,142 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+
+/**
+ * An A* search over a packed move map. Cells are expanded in order of the moves taken so far
+ * plus a heuristic estimate of the moves left, so on mazes whose corridors lead towards the exit
+ * far fewer cells are expanded than with breadth first search. Ties are broken in favour of the
+ * cell furthest from the start, which keeps the search heading down the current corridor.
+ */
+public class AStarSolver implements SolverStrategy {
+
+    /** The heuristic used to estimate the moves left to the end. */
+    private final Heuristic heuristic;
+
+    /** The number of cells expanded by the last search. */
+    private int expandedCount;
+
+    /**
+     * Creates an A* solver using the Manhattan distance heuristic.
+     */
+    public AStarSolver() {
+        this(Heuristic.MANHATTAN);
+    }
+
+    /**
+     * Creates an A* solver using the given heuristic. The heuristic must never overestimate the
+     * moves left for the paths found to be the quickest.
+     *
+     * @param heuristic The heuristic used to estimate the moves left to the end.
+     */
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int endX = map.xOf(end);
+        int endY = map.yOf(end);
+
+        // The number of moves to reach each cell, and the cell it was best reached from.
+        int[] cost = new int[map.getCellCount()];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        int[] parent = new int[map.getCellCount()];
+        cost[start] = 0;
+        parent[start] = start;
+
+        IntMinHeap open = new IntMinHeap(width + height);
+        open.push(priority(0, heuristic.estimate(map.xOf(start), map.yOf(start), endX, endY)),
+                start);
+        expandedCount = 0;
+
+        while (!open.isEmpty()) {
+            long priority = open.peekPriority();
+            int current = open.pop();
+
+            // Skips entries that were pushed before a cheaper route to the cell was found.
+            int currentCost = Integer.MAX_VALUE - (int) (priority & Integer.MAX_VALUE);
+            if (currentCost != cost[current]) {
+                continue;
+            }
+            if (current == end) {
+                return BfsSolver.tracePath(parent, start, end);
+            }
+            expandedCount++;
+            if ((expandedCount & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+
+            int x = current % width;
+            int y = current / width;
+            int nextCost = currentCost + 1;
+
+            // Up, left, down, right.
+            if (y > 0) {
+                relax(map, open, cost, parent, current, current - width, nextCost,
+                        heuristic.estimate(x, y - 1, endX, endY));
+            }
+            if (x > 0) {
+                relax(map, open, cost, parent, current, current - 1, nextCost,
+                        heuristic.estimate(x - 1, y, endX, endY));
+            }
+            if (y < height - 1) {
+                relax(map, open, cost, parent, current, current + width, nextCost,
+                        heuristic.estimate(x, y + 1, endX, endY));
+            }
+            if (x < width - 1) {
+                relax(map, open, cost, parent, current, current + 1, nextCost,
+                        heuristic.estimate(x + 1, y, endX, endY));
+            }
+        }
+
+        // If every reachable cell has been expanded without reaching the end, it is unsolvable.
+        return new int[0];
+    }
+
+    /**
+     * Records a cheaper route to the neighbour, if it is a valid move, and queues it.
+     *
+     * @param map The move map being searched.
+     * @param open The heap of cells waiting to be expanded.
+     * @param cost The moves taken to reach each cell.
+     * @param parent The cell each cell was best reached from.
+     * @param current The cell being expanded.
+     * @param neighbour The neighbour of the cell being expanded.
+     * @param nextCost The moves taken to reach the neighbour through the current cell.
+     * @param estimate The heuristic estimate of the moves left from the neighbour.
+     */
+    private static void relax(PackedMoveMap map, IntMinHeap open, int[] cost, int[] parent,
+                              int current, int neighbour, int nextCost, int estimate) {
+        if (nextCost < cost[neighbour] && map.isOpen(neighbour)) {
+            cost[neighbour] = nextCost;
+            parent[neighbour] = current;
+            open.push(priority(nextCost, estimate), neighbour);
+        }
+    }
+
+    /**
+     * Packs the total estimated cost into the high half of the priority and the inverted cost so
+     * far into the low half, so equal estimates are popped deepest first.
+     *
+     * @param cost The moves taken to reach the cell.
+     * @param estimate The heuristic estimate of the moves left from the cell.
+     * @return The heap priority of the cell.
+     */
+    private static long priority(int cost, int estimate) {
+        return ((long) (cost + estimate) << 32) | (Integer.MAX_VALUE - cost);
+    }
+
+    /**
+     * Getter method for the number of cells expanded by the last search.
+     *
+     * @return The number of cells expanded.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+}
@@ -0,0 +1,150 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+
+/**
+ * A breadth first search over a packed move map that works purely on flat cell indices.
+ * The queue is an int ring buffer and each visited cell only stores the index of its parent, so
+ * no objects are created per explored cell. Neighbours are explored in the order
+ * [up, left, down, right], so the path found is the same one MazeSolver has always returned.
+ */
+public class BfsSolver implements SolverStrategy {
+
+    /** The initial capacity of the ring buffer queue, must be a power of two. */
+    private static final int INITIAL_QUEUE_CAPACITY = 1024;
+
+    /** The marker for a cell that has not been visited yet. */
+    static final int UNVISITED = -1;
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+
+        // Every cell stores the index of the cell it was reached from, the start is its own parent.
+        int[] parent = new int[map.getCellCount()];
+        Arrays.fill(parent, UNVISITED);
+        parent[start] = start;
+
+        // A ring buffer queue, grown by doubling whenever it fills up.
+        int[] queue = new int[INITIAL_QUEUE_CAPACITY];
+        int mask = queue.length - 1;
+        int head = 0;
+        int size = 0;
+        queue[0] = start;
+        size++;
+        int steps = 0;
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) & mask;
+            size--;
+
+            if ((++steps & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+
+            if (current == end) {
+                return tracePath(parent, start, end);
+            }
+
+            // Makes sure there is room for all four neighbours before exploring.
+            if (size + 4 > queue.length) {
+                queue = growQueue(queue, head, size);
+                mask = queue.length - 1;
+                head = 0;
+            }
+
+            int x = current % width;
+            int y = current / width;
+            int tail = (head + size) & mask;
+
+            // Up.
+            if (y > 0 && visit(map, parent, current - width, current)) {
+                queue[tail] = current - width;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            // Left.
+            if (x > 0 && visit(map, parent, current - 1, current)) {
+                queue[tail] = current - 1;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            // Down.
+            if (y < height - 1 && visit(map, parent, current + width, current)) {
+                queue[tail] = current + width;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            // Right.
+            if (x < width - 1 && visit(map, parent, current + 1, current)) {
+                queue[tail] = current + 1;
+                size++;
+            }
+        }
+
+        // If the queue is empty and the end has not been reached, the maze is unsolvable.
+        return new int[0];
+    }
+
+    /**
+     * Marks the neighbour as visited from the current cell if it is a valid move that hasn't been
+     * visited yet.
+     *
+     * @param map The move map being searched.
+     * @param parent The parent array.
+     * @param neighbour The flat index of the neighbour.
+     * @param current The flat index of the cell being explored.
+     * @return True if the neighbour was newly visited and should be queued, false otherwise.
+     */
+    private static boolean visit(PackedMoveMap map, int[] parent, int neighbour, int current) {
+        if (parent[neighbour] == UNVISITED && map.isOpen(neighbour)) {
+            parent[neighbour] = current;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies the queue into a ring buffer twice the size, starting at index 0.
+     *
+     * @param queue The full queue.
+     * @param head The index of the head of the queue.
+     * @param size The number of cells in the queue.
+     * @return The new, larger queue.
+     */
+    static int[] growQueue(int[] queue, int head, int size) {
+        int[] grown = new int[queue.length << 1];
+        int mask = queue.length - 1;
+        for (int i = 0; i < size; i++) {
+            grown[i] = queue[(head + i) & mask];
+        }
+        return grown;
+    }
+
+    /**
+     * Walks the parent array back from the end to the start and returns the path in order.
+     *
+     * @param parent The parent array, where the start is its own parent.
+     * @param start The flat index of the start cell.
+     * @param end The flat index of the end cell.
+     * @return The flat indices of the path, from start to end inclusive.
+     */
+    static int[] tracePath(int[] parent, int start, int end) {
+        // Counts the path length first, so the path can be filled back to front.
+        int length = 1;
+        for (int cell = end; cell != start; cell = parent[cell]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int cell = end;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        return path;
+    }
+}
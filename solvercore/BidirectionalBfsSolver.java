@@ -0,0 +1,217 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+
+/**
+ * A breadth first search that expands from both the start and the end at once, one whole level
+ * at a time from whichever side has the smaller frontier, and stops as soon as the two searches
+ * meet. Each side only has to reach about half way, so far fewer cells are visited than when
+ * searching from the start alone.
+ * <p>
+ * Because every level is expanded in full before the other side moves, the first cell found
+ * that the other side has already visited always lies on its current frontier, so every meeting
+ * found in that level gives a path of the same, quickest, length.
+ * </p>
+ */
+public class BidirectionalBfsSolver implements SolverStrategy {
+
+    /** The number of cells visited by the last search, from both sides. */
+    private int visitedCount;
+
+    /** The cell of the expanding side where the last search met the other side. */
+    private int meetingCell;
+
+    /** The cell of the other side where the last search met it. */
+    private int meetingNeighbour;
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        visitedCount = 1;
+        if (start == end) {
+            return new int[]{start};
+        }
+
+        // Each side stores the cell every visited cell was reached from.
+        int[] forwardParent = new int[map.getCellCount()];
+        int[] backwardParent = new int[map.getCellCount()];
+        Arrays.fill(forwardParent, BfsSolver.UNVISITED);
+        Arrays.fill(backwardParent, BfsSolver.UNVISITED);
+        forwardParent[start] = start;
+        backwardParent[end] = end;
+        visitedCount++;
+
+        Frontier forward = new Frontier(start);
+        Frontier backward = new Frontier(end);
+
+        while (forward.size > 0 && backward.size > 0) {
+            SolverCancellation.checkInterrupted();
+
+            // Expands the smaller frontier, which keeps both searches roughly the same size.
+            if (forward.size <= backward.size) {
+                if (expandLevel(map, forward, forwardParent, backwardParent)) {
+                    return joinPaths(forwardParent, backwardParent, meetingCell,
+                            meetingNeighbour, start, end);
+                }
+            } else if (expandLevel(map, backward, backwardParent, forwardParent)) {
+                return joinPaths(forwardParent, backwardParent, meetingNeighbour,
+                        meetingCell, start, end);
+            }
+        }
+
+        // If either side runs out of cells before meeting the other, the maze is unsolvable.
+        return new int[0];
+    }
+
+    /**
+     * Expands every cell in the frontier by one move, replacing the frontier with the next level.
+     * If the searches meet, the meeting cells are stored in meetingCell and meetingNeighbour.
+     *
+     * @param map The move map being searched.
+     * @param frontier The frontier of the side being expanded.
+     * @param parent The parent array of the side being expanded.
+     * @param otherParent The parent array of the other side.
+     * @return True if the searches met, false otherwise.
+     */
+    private boolean expandLevel(PackedMoveMap map, Frontier frontier, int[] parent,
+                                int[] otherParent) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        frontier.startNextLevel();
+
+        for (int i = 0; i < frontier.size; i++) {
+            int current = frontier.cells[i];
+            int x = current % width;
+            int y = current / width;
+
+            // Up, left, down, right.
+            if ((y > 0 && visit(map, frontier, parent, otherParent, current, current - width))
+                    || (x > 0 && visit(map, frontier, parent, otherParent, current, current - 1))
+                    || (y < height - 1
+                        && visit(map, frontier, parent, otherParent, current, current + width))
+                    || (x < width - 1
+                        && visit(map, frontier, parent, otherParent, current, current + 1))) {
+                return true;
+            }
+        }
+        frontier.finishLevel();
+        return false;
+    }
+
+    /**
+     * Visits the neighbour from the current cell if it is a valid move this side hasn't visited.
+     *
+     * @param map The move map being searched.
+     * @param frontier The frontier of the side being expanded.
+     * @param parent The parent array of the side being expanded.
+     * @param otherParent The parent array of the other side.
+     * @param current The cell being expanded.
+     * @param neighbour The neighbour of the cell being expanded.
+     * @return True if the other side has already visited the neighbour, false otherwise.
+     */
+    private boolean visit(PackedMoveMap map, Frontier frontier, int[] parent, int[] otherParent,
+                          int current, int neighbour) {
+        if (parent[neighbour] != BfsSolver.UNVISITED || !map.isOpen(neighbour)) {
+            return false;
+        }
+        if (otherParent[neighbour] != BfsSolver.UNVISITED) {
+            meetingCell = current;
+            meetingNeighbour = neighbour;
+            return true;
+        }
+        parent[neighbour] = current;
+        frontier.addNext(neighbour);
+        visitedCount++;
+        return false;
+    }
+
+    /**
+     * Joins the chain of parents from the start with the chain of parents from the end.
+     *
+     * @param forwardParent The parent array of the search from the start.
+     * @param backwardParent The parent array of the search from the end.
+     * @param forwardCell The last cell on the start side of the meeting.
+     * @param backwardCell The first cell on the end side of the meeting.
+     * @param start The flat index of the start cell.
+     * @param end The flat index of the end cell.
+     * @return The flat indices of the path, from start to end inclusive.
+     */
+    private static int[] joinPaths(int[] forwardParent, int[] backwardParent, int forwardCell,
+                                   int backwardCell, int start, int end) {
+        int[] head = BfsSolver.tracePath(forwardParent, start, forwardCell);
+        // The backward chain leads from the meeting to the end, so it is already in order.
+        int tailLength = 1;
+        for (int cell = backwardCell; cell != end; cell = backwardParent[cell]) {
+            tailLength++;
+        }
+        int[] path = Arrays.copyOf(head, head.length + tailLength);
+        int cell = backwardCell;
+        for (int i = head.length; i < path.length; i++) {
+            path[i] = cell;
+            cell = backwardParent[cell];
+        }
+        return path;
+    }
+
+    /**
+     * Getter method for the number of cells visited by the last search, from both sides.
+     *
+     * @return The number of cells visited.
+     */
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * The current level of one side of the search, and a buffer the next level is built in.
+     * Both arrays are reused between levels and grown by doubling when full.
+     */
+    private static class Frontier {
+        /** The cells in the current level. */
+        private int[] cells = new int[64];
+
+        /** The number of cells in the current level. */
+        private int size;
+
+        /** The cells in the level being built. */
+        private int[] next = new int[64];
+
+        /** The number of cells in the level being built. */
+        private int nextSize;
+
+        Frontier(int firstCell) {
+            cells[0] = firstCell;
+            size = 1;
+        }
+
+        /**
+         * Empties the buffer the next level is built in.
+         */
+        private void startNextLevel() {
+            nextSize = 0;
+        }
+
+        /**
+         * Adds a cell to the level being built.
+         *
+         * @param cell The flat index of the cell.
+         */
+        private void addNext(int cell) {
+            if (nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize << 1);
+            }
+            next[nextSize++] = cell;
+        }
+
+        /**
+         * Swaps the level being built in as the current level.
+         */
+        private void finishLevel() {
+            int[] swap = cells;
+            cells = next;
+            size = nextSize;
+            next = swap;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package solvercore;
+
+/**
+ * An estimate of the number of moves left between a cell and the goal, used by the A* solver.
+ * To keep A* paths the quickest, the estimate must never be more than the real number of moves.
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /** The Manhattan distance, the exact number of moves on an empty 4-connected grid. */
+    Heuristic MANHATTAN = (x, y, goalX, goalY) -> Math.abs(goalX - x) + Math.abs(goalY - y);
+
+    /** An estimate of zero, which turns A* into a plain uniform cost search. */
+    Heuristic NONE = (x, y, goalX, goalY) -> 0;
+
+    /**
+     * Estimates the number of moves between a cell and the goal.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param goalX The x coordinate of the goal.
+     * @param goalY The y coordinate of the goal.
+     * @return The estimated number of moves.
+     */
+    int estimate(int x, int y, int goalX, int goalY);
+}
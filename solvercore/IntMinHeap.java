@@ -0,0 +1,111 @@
+package solvercore;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of int values ordered by long priorities, stored in two parallel primitive
+ * arrays so no objects are created per entry. Grows by doubling when full.
+ */
+class IntMinHeap {
+
+    /** The priorities of the entries, in heap order. */
+    private long[] priorities;
+
+    /** The values of the entries, in heap order. */
+    private int[] values;
+
+    /** The number of entries in the heap. */
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity The initial capacity of the heap.
+     */
+    IntMinHeap(int capacity) {
+        priorities = new long[Math.max(capacity, 16)];
+        values = new int[priorities.length];
+    }
+
+    /**
+     * Adds a value to the heap.
+     *
+     * @param priority The priority of the value, lower priorities are popped first.
+     * @param value The value to add.
+     */
+    void push(long priority, int value) {
+        if (size == priorities.length) {
+            priorities = Arrays.copyOf(priorities, size << 1);
+            values = Arrays.copyOf(values, size << 1);
+        }
+        // Sifts the new entry up from the bottom of the heap.
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            priorities[i] = priorities[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        priorities[i] = priority;
+        values[i] = value;
+    }
+
+    /**
+     * Getter method for the lowest priority in the heap. The heap must not be empty.
+     *
+     * @return The lowest priority.
+     */
+    long peekPriority() {
+        return priorities[0];
+    }
+
+    /**
+     * Removes the entry with the lowest priority and returns its value. The heap must not be empty.
+     *
+     * @return The value with the lowest priority.
+     */
+    int pop() {
+        int top = values[0];
+        size--;
+        long priority = priorities[size];
+        int value = values[size];
+
+        // Sifts the last entry down from the top of the heap.
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            priorities[i] = priorities[child];
+            values[i] = values[child];
+            i = child;
+        }
+        priorities[i] = priority;
+        values[i] = value;
+        return top;
+    }
+
+    /**
+     * Checks if the heap is empty.
+     *
+     * @return True if the heap has no entries, false otherwise.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry from the heap, keeping its capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+}
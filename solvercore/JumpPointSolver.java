@@ -0,0 +1,236 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+
+/**
+ * A Jump Point Search over the 4-connected grid of a packed move map. Instead of expanding every
+ * cell, the search jumps in straight lines and only stops at jump points, so large open areas
+ * made of ' ' and '.' cells are crossed without expanding the cells in the middle of them.
+ * <p>
+ * Symmetric paths are pruned by preferring to move vertically before horizontally:
+ * a vertical jump stops at any cell where it could turn left or right, while a horizontal jump
+ * only stops where a cell above or below can't be reached by an equally short vertical-first
+ * path (a forced neighbour). The jump points found are expanded with A* and the Manhattan
+ * heuristic, then the path between them is filled back in cell by cell.
+ * </p>
+ */
+public class JumpPointSolver implements SolverStrategy {
+
+    /** The number of jump points expanded by the last search. */
+    private int expandedCount;
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        int width = map.getWidth();
+        int endX = map.xOf(end);
+        int endY = map.yOf(end);
+
+        // The moves taken to reach each jump point, and the jump point it was best reached from.
+        int[] cost = new int[map.getCellCount()];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        int[] parent = new int[map.getCellCount()];
+        cost[start] = 0;
+        parent[start] = start;
+
+        IntMinHeap open = new IntMinHeap(64);
+        open.push(priority(0, manhattan(map.xOf(start), map.yOf(start), endX, endY)), start);
+        expandedCount = 0;
+
+        while (!open.isEmpty()) {
+            long priority = open.peekPriority();
+            int current = open.pop();
+
+            // Skips entries that were pushed before a cheaper route to the cell was found.
+            int currentCost = Integer.MAX_VALUE - (int) (priority & Integer.MAX_VALUE);
+            if (currentCost != cost[current]) {
+                continue;
+            }
+            if (current == end) {
+                return fillPath(map, BfsSolver.tracePath(parent, start, end));
+            }
+            expandedCount++;
+            if ((expandedCount & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+
+            int x = current % width;
+            int y = current / width;
+
+            // Works out which way the jump point was entered, the start has no direction.
+            int from = parent[current];
+            int dx = Integer.signum(x - map.xOf(from));
+            int dy = Integer.signum(y - map.yOf(from));
+
+            if (current == start || dy != 0) {
+                // Vertical moves, or the start, may continue vertically and turn either way.
+                if (current == start || dy < 0) {
+                    jumpFrom(map, open, cost, parent, current, x, y, 0, -1, endX, endY);
+                }
+                if (current == start || dy > 0) {
+                    jumpFrom(map, open, cost, parent, current, x, y, 0, 1, endX, endY);
+                }
+                jumpFrom(map, open, cost, parent, current, x, y, -1, 0, endX, endY);
+                jumpFrom(map, open, cost, parent, current, x, y, 1, 0, endX, endY);
+            } else {
+                // Horizontal moves continue horizontally and only turn into forced neighbours.
+                jumpFrom(map, open, cost, parent, current, x, y, dx, 0, endX, endY);
+                if (isForced(map, x, y, dx, -1)) {
+                    jumpFrom(map, open, cost, parent, current, x, y, 0, -1, endX, endY);
+                }
+                if (isForced(map, x, y, dx, 1)) {
+                    jumpFrom(map, open, cost, parent, current, x, y, 0, 1, endX, endY);
+                }
+            }
+        }
+
+        // If every reachable jump point has been expanded without reaching the end, the maze is
+        // unsolvable.
+        return new int[0];
+    }
+
+    /**
+     * Jumps from a jump point in the given direction and queues the next jump point found, if
+     * it is reached more cheaply than before.
+     *
+     * @param map The move map being searched.
+     * @param open The heap of jump points waiting to be expanded.
+     * @param cost The moves taken to reach each jump point.
+     * @param parent The jump point each jump point was best reached from.
+     * @param current The jump point being expanded.
+     * @param x The x coordinate of the jump point being expanded.
+     * @param y The y coordinate of the jump point being expanded.
+     * @param dx The x direction of the jump, -1, 0 or 1.
+     * @param dy The y direction of the jump, -1, 0 or 1.
+     * @param endX The x coordinate of the end.
+     * @param endY The y coordinate of the end.
+     */
+    private static void jumpFrom(PackedMoveMap map, IntMinHeap open, int[] cost, int[] parent,
+                                 int current, int x, int y, int dx, int dy, int endX, int endY) {
+        int jumpPoint = jump(map, x, y, dx, dy, endX, endY);
+        if (jumpPoint < 0) {
+            return;
+        }
+        int jumpX = map.xOf(jumpPoint);
+        int jumpY = map.yOf(jumpPoint);
+        int nextCost = cost[current] + Math.abs(jumpX - x) + Math.abs(jumpY - y);
+        if (nextCost < cost[jumpPoint]) {
+            cost[jumpPoint] = nextCost;
+            parent[jumpPoint] = current;
+            open.push(priority(nextCost, manhattan(jumpX, jumpY, endX, endY)), jumpPoint);
+        }
+    }
+
+    /**
+     * Moves in a straight line from the given cell until a jump point, the end or a wall is found.
+     *
+     * @param map The move map being searched.
+     * @param x The x coordinate of the cell to jump from.
+     * @param y The y coordinate of the cell to jump from.
+     * @param dx The x direction of the jump, -1, 0 or 1.
+     * @param dy The y direction of the jump, -1, 0 or 1.
+     * @param endX The x coordinate of the end.
+     * @param endY The y coordinate of the end.
+     * @return The flat index of the jump point found, or -1 if the jump ran into a wall.
+     */
+    private static int jump(PackedMoveMap map, int x, int y, int dx, int dy, int endX, int endY) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!map.isOpen(x, y)) {
+                return -1;
+            }
+            if (x == endX && y == endY) {
+                return map.index(x, y);
+            }
+            if (dy != 0) {
+                // A vertical jump stops wherever it could turn left or right.
+                if (map.isOpen(x - 1, y) || map.isOpen(x + 1, y)) {
+                    return map.index(x, y);
+                }
+            } else if (isForced(map, x, y, dx, -1) || isForced(map, x, y, dx, 1)) {
+                return map.index(x, y);
+            }
+        }
+    }
+
+    /**
+     * Checks if the cell above or below a horizontally entered cell is a forced neighbour, that is
+     * it is open but the cell diagonally behind it is blocked, so it can't be reached as quickly
+     * by moving vertically first.
+     *
+     * @param map The move map being searched.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param dx The x direction the cell was entered in, -1 or 1.
+     * @param dy The side to check, -1 for above or 1 for below.
+     * @return True if the neighbour is forced, false otherwise.
+     */
+    private static boolean isForced(PackedMoveMap map, int x, int y, int dx, int dy) {
+        return map.isOpen(x, y + dy) && !map.isOpen(x - dx, y + dy);
+    }
+
+    /**
+     * Fills in every cell between consecutive jump points, which are always in a straight line.
+     *
+     * @param map The move map that was searched.
+     * @param jumpPoints The flat indices of the jump points, from start to end.
+     * @return The flat indices of every cell on the path, from start to end inclusive.
+     */
+    private static int[] fillPath(PackedMoveMap map, int[] jumpPoints) {
+        int length = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            length += Math.abs(map.xOf(jumpPoints[i]) - map.xOf(jumpPoints[i - 1]))
+                    + Math.abs(map.yOf(jumpPoints[i]) - map.yOf(jumpPoints[i - 1]));
+        }
+        int[] path = new int[length];
+        path[0] = jumpPoints[0];
+        int filled = 1;
+        for (int i = 1; i < jumpPoints.length; i++) {
+            int from = jumpPoints[i - 1];
+            int to = jumpPoints[i];
+            // Steps one cell at a time, a whole row (width) for vertical moves.
+            int step = map.yOf(from) == map.yOf(to)
+                    ? Integer.signum(to - from) : Integer.signum(to - from) * map.getWidth();
+            for (int cell = from + step; cell != to + step; cell += step) {
+                path[filled++] = cell;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Calculates the Manhattan distance between two cells.
+     *
+     * @param x The x coordinate of the first cell.
+     * @param y The y coordinate of the first cell.
+     * @param goalX The x coordinate of the second cell.
+     * @param goalY The y coordinate of the second cell.
+     * @return The Manhattan distance.
+     */
+    private static int manhattan(int x, int y, int goalX, int goalY) {
+        return Heuristic.MANHATTAN.estimate(x, y, goalX, goalY);
+    }
+
+    /**
+     * Packs the total estimated cost into the high half of the priority and the inverted cost so
+     * far into the low half, so equal estimates are popped deepest first.
+     *
+     * @param cost The moves taken to reach the jump point.
+     * @param estimate The heuristic estimate of the moves left from the jump point.
+     * @return The heap priority of the jump point.
+     */
+    private static long priority(int cost, int estimate) {
+        return ((long) (cost + estimate) << 32) | (Integer.MAX_VALUE - cost);
+    }
+
+    /**
+     * Getter method for the number of jump points expanded by the last search.
+     *
+     * @return The number of jump points expanded.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+}
@@ -0,0 +1,480 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+
+/**
+ * A graph of the junctions of a packed move map, where every corridor of cells with exactly two
+ * valid moves is collapsed into a single weighted edge between the cells at either end of it.
+ * The nodes are every valid move with one, three or four neighbouring valid moves, so dead ends,
+ * junctions, and in practice the start and end, are all nodes.
+ * <p>
+ * The edges are stored in compressed sparse row form, node by node, and the node cells are kept
+ * in ascending order so a cell's node can be found with a binary search. Shortest paths are found
+ * with Dijkstra's algorithm over the nodes and only expanded back to cells once the quickest
+ * route is known. Start and end cells in the middle of a corridor are joined to the graph
+ * through the nodes at either end of their corridor.
+ * </p>
+ * <p>
+ * Building the graph takes one pass over the map, so a maze's graph is kept by its MazeContext,
+ * see {@link mazecore.MazeContext#getJunctionGraph()}. The move map must not be changed once its
+ * graph has been built.
+ * </p>
+ */
+public class JunctionGraph {
+
+    /** The move map the graph was built from. */
+    private final PackedMoveMap map;
+
+    /** The flat index of every node, in ascending order. */
+    private final int[] nodeCells;
+
+    /** Where each node's edges start in the edge arrays, with one extra entry at the end. */
+    private final int[] edgeOffsets;
+
+    /** The node each edge leads to. */
+    private final int[] edgeTargets;
+
+    /** The number of moves along each edge. */
+    private final int[] edgeWeights;
+
+    /** The first cell moved into along each edge, used to expand it back to cells. */
+    private final int[] edgeFirstCells;
+
+    /**
+     * Builds the junction graph of a move map.
+     *
+     * @param map The move map to build the graph from.
+     */
+    private JunctionGraph(PackedMoveMap map) {
+        this.map = map;
+        int cellCount = map.getCellCount();
+
+        // Counts the nodes and their edges first, so every array is created at the right size.
+        int nodeCount = 0;
+        int edgeCount = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (isNode(cell)) {
+                nodeCount++;
+                edgeCount += degree(cell);
+            }
+        }
+
+        nodeCells = new int[nodeCount];
+        edgeOffsets = new int[nodeCount + 1];
+        int node = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (isNode(cell)) {
+                nodeCells[node] = cell;
+                edgeOffsets[node + 1] = edgeOffsets[node] + degree(cell);
+                node++;
+            }
+        }
+
+        // Follows every corridor leading out of every node until it reaches another node.
+        edgeTargets = new int[edgeCount];
+        edgeWeights = new int[edgeCount];
+        edgeFirstCells = new int[edgeCount];
+        int edge = 0;
+        for (node = 0; node < nodeCount; node++) {
+            if ((node & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+            int cell = nodeCells[node];
+            for (int direction = 0; direction < 4; direction++) {
+                int first = neighbour(cell, direction);
+                if (first < 0) {
+                    continue;
+                }
+                long corridor = followCorridor(cell, first);
+                edgeTargets[edge] = nodeOf((int) corridor);
+                edgeWeights[edge] = (int) (corridor >>> 32);
+                edgeFirstCells[edge] = first;
+                edge++;
+            }
+        }
+    }
+
+    /**
+     * Builds the junction graph of a move map.
+     *
+     * @param map The move map to build the graph from.
+     * @return The junction graph of the move map.
+     */
+    public static JunctionGraph build(PackedMoveMap map) {
+        return new JunctionGraph(map);
+    }
+
+    /**
+     * Getter method for the move map the graph was built from.
+     *
+     * @return The move map.
+     */
+    public PackedMoveMap getMoveMap() {
+        return map;
+    }
+
+    /**
+     * Finds the quickest path between two cells.
+     *
+     * @param start The flat index of the start cell.
+     * @param end The flat index of the end cell.
+     * @return The flat indices of every cell on the path, from start to end inclusive, or an
+     *         empty array if the end can't be reached.
+     */
+    public int[] shortestPath(int start, int end) {
+        if (start == end) {
+            return new int[]{start};
+        }
+        if (!map.isOpen(start) || !map.isOpen(end)) {
+            return new BfsSolver().solve(map, start, end);
+        }
+
+        // The corridors either side of a start or end that isn't a node, leading to a node.
+        int[][] startSides = isNode(start) ? null : corridorSides(start);
+        int[][] endSides = isNode(end) ? null : corridorSides(end);
+        if ((startSides == null && !isNode(start)) || (endSides == null && !isNode(end))) {
+            // A corridor that loops back on itself without any nodes, which is rare enough
+            // to leave to a plain breadth first search.
+            return new BfsSolver().solve(map, start, end);
+        }
+
+        // The best route found so far, starting with the end being along the start's corridor.
+        int best = Integer.MAX_VALUE;
+        int bestNode = -1;
+        int bestSide = -1;
+        if (startSides != null) {
+            for (int side = 0; side < 2; side++) {
+                int index = indexOf(startSides[side], end);
+                if (index >= 0 && index + 1 < best) {
+                    best = index + 1;
+                    bestSide = side;
+                }
+            }
+        }
+
+        int[] cost = new int[nodeCells.length];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        int[] parentNode = new int[nodeCells.length];
+        int[] parentEdge = new int[nodeCells.length];
+        IntMinHeap open = new IntMinHeap(64);
+
+        // Seeds the search with the start, or the nodes at either end of its corridor. Seeds have
+        // no parent node, and their parent edge is the side of the corridor they were reached by.
+        if (startSides == null) {
+            int node = nodeOf(start);
+            cost[node] = 0;
+            parentNode[node] = -1;
+            parentEdge[node] = -1;
+            open.push(0, node);
+        } else {
+            for (int side = 0; side < 2; side++) {
+                int node = nodeOf(startSides[side][startSides[side].length - 1]);
+                int sideCost = startSides[side].length;
+                if (sideCost < cost[node]) {
+                    cost[node] = sideCost;
+                    parentNode[node] = -1;
+                    parentEdge[node] = side;
+                    open.push(sideCost, node);
+                }
+            }
+        }
+
+        int endNode = endSides == null ? nodeOf(end) : -1;
+        int pops = 0;
+        while (!open.isEmpty()) {
+            long priority = open.peekPriority();
+            int node = open.pop();
+
+            // Skips entries that were pushed before a cheaper route to the node was found.
+            if (priority != cost[node]) {
+                continue;
+            }
+            if (priority >= best) {
+                break;
+            }
+            if ((++pops & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+
+            if (node == endNode) {
+                best = cost[node];
+                bestNode = node;
+                break;
+            }
+            if (endSides != null) {
+                for (int side = 0; side < 2; side++) {
+                    int[] corridor = endSides[side];
+                    if (nodeCells[node] == corridor[corridor.length - 1]
+                            && cost[node] + corridor.length < best) {
+                        best = cost[node] + corridor.length;
+                        bestNode = node;
+                        bestSide = side;
+                    }
+                }
+            }
+
+            for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+                int target = edgeTargets[edge];
+                int nextCost = cost[node] + edgeWeights[edge];
+                if (nextCost < cost[target] && nextCost < best) {
+                    cost[target] = nextCost;
+                    parentNode[target] = node;
+                    parentEdge[target] = edge;
+                    open.push(nextCost, target);
+                }
+            }
+        }
+
+        // If every reachable node has been expanded without reaching the end, the maze is
+        // unsolvable.
+        if (best == Integer.MAX_VALUE) {
+            return new int[0];
+        }
+
+        int[] path = new int[best + 1];
+        path[0] = start;
+        if (bestNode < 0) {
+            // The end is along the start's corridor, so no nodes are involved.
+            System.arraycopy(startSides[bestSide], 0, path, 1, best);
+            return path;
+        }
+        return expandPath(path, end, bestNode, parentNode, parentEdge, startSides,
+                endSides == null ? null : endSides[bestSide]);
+    }
+
+    /**
+     * Fills in every cell of the quickest path, from the start's corridor through each edge taken
+     * to the end's corridor.
+     *
+     * @param path The path to fill in, sized to the quickest path with the start already set.
+     * @param end The flat index of the end cell.
+     * @param lastNode The last node on the quickest path.
+     * @param parentNode The node each node was reached from, or -1 for the first node.
+     * @param parentEdge The edge each node was reached by, or the start's side for the first.
+     * @param startSides The corridors either side of the start, or null if it is a node.
+     * @param endCorridor The corridor from the end to the last node, or null if the end is it.
+     * @return The filled in path.
+     */
+    private int[] expandPath(int[] path, int end, int lastNode, int[] parentNode,
+                             int[] parentEdge, int[][] startSides, int[] endCorridor) {
+        // Collects the edges taken by walking back from the last node to the first.
+        int hops = 0;
+        int firstNode = lastNode;
+        while (parentNode[firstNode] >= 0) {
+            firstNode = parentNode[firstNode];
+            hops++;
+        }
+        int[] edges = new int[hops];
+        for (int node = lastNode; parentNode[node] >= 0; node = parentNode[node]) {
+            edges[--hops] = parentEdge[node];
+        }
+
+        int filled = 1;
+        if (startSides != null) {
+            int[] corridor = startSides[parentEdge[firstNode]];
+            System.arraycopy(corridor, 0, path, filled, corridor.length);
+            filled += corridor.length;
+        }
+        for (int edge : edges) {
+            int previous = path[filled - 1];
+            int current = edgeFirstCells[edge];
+            path[filled++] = current;
+            while (!isNode(current)) {
+                int next = nextInCorridor(previous, current);
+                previous = current;
+                current = next;
+                path[filled++] = current;
+            }
+        }
+        if (endCorridor != null) {
+            // The end's corridor leads away from the end, so it is copied in reverse.
+            for (int i = endCorridor.length - 2; i >= 0; i--) {
+                path[filled++] = endCorridor[i];
+            }
+            path[filled] = end;
+        }
+        return path;
+    }
+
+    /**
+     * Follows the corridors either side of a cell that isn't a node.
+     *
+     * @param cell The flat index of a valid move with exactly two neighbouring valid moves.
+     * @return The cells along each corridor, from the cell's neighbour to the node it leads to
+     *         inclusive, or null if the corridor loops back to the cell without reaching a node.
+     */
+    private int[][] corridorSides(int cell) {
+        int[][] sides = new int[2][];
+        int side = 0;
+        for (int direction = 0; direction < 4 && side < 2; direction++) {
+            int first = neighbour(cell, direction);
+            if (first >= 0) {
+                sides[side] = corridorCells(cell, first);
+                if (sides[side] == null) {
+                    return null;
+                }
+                side++;
+            }
+        }
+        return sides;
+    }
+
+    /**
+     * Collects the cells along a corridor until a node is reached.
+     *
+     * @param origin The flat index of the cell the corridor is followed from.
+     * @param first The flat index of the first cell along the corridor.
+     * @return The cells along the corridor, up to the node inclusive, or null if the corridor
+     *         loops back to the origin first.
+     */
+    private int[] corridorCells(int origin, int first) {
+        int[] cells = new int[16];
+        int size = 0;
+        int previous = origin;
+        int current = first;
+        while (current != origin) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size << 1);
+            }
+            cells[size++] = current;
+            if (isNode(current)) {
+                return Arrays.copyOf(cells, size);
+            }
+            int next = nextInCorridor(previous, current);
+            previous = current;
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * Follows a corridor leading out of a node until it reaches a node.
+     *
+     * @param node The flat index of the node the corridor leads out of.
+     * @param first The flat index of the first cell along the corridor.
+     * @return The number of moves along the corridor in the high half, and the flat index of the
+     *         node it reaches in the low half.
+     */
+    private long followCorridor(int node, int first) {
+        int previous = node;
+        int current = first;
+        int length = 1;
+        while (!isNode(current)) {
+            int next = nextInCorridor(previous, current);
+            previous = current;
+            current = next;
+            length++;
+        }
+        return ((long) length << 32) | current;
+    }
+
+    /**
+     * Gets the neighbouring valid move of a corridor cell that wasn't just moved from.
+     *
+     * @param previous The flat index of the cell moved from.
+     * @param current The flat index of the corridor cell.
+     * @return The flat index of the next cell along the corridor.
+     */
+    private int nextInCorridor(int previous, int current) {
+        for (int direction = 0; direction < 4; direction++) {
+            int next = neighbour(current, direction);
+            if (next >= 0 && next != previous) {
+                return next;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Checks if a cell is a node, that is a valid move that isn't part of a corridor.
+     *
+     * @param cell The flat index of the cell.
+     * @return True if the cell is a node, false otherwise.
+     */
+    private boolean isNode(int cell) {
+        return map.isOpen(cell) && degree(cell) != 2;
+    }
+
+    /**
+     * Counts the neighbouring valid moves of a cell.
+     *
+     * @param cell The flat index of the cell.
+     * @return The number of neighbouring valid moves, from 0 to 4.
+     */
+    private int degree(int cell) {
+        int degree = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if (neighbour(cell, direction) >= 0) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Gets the neighbour of a cell in the given direction if it is a valid move.
+     *
+     * @param cell The flat index of the cell.
+     * @param direction The direction, 0 to 3 for [up, left, down, right].
+     * @return The flat index of the neighbour, or -1 if it is outside the map or not a valid move.
+     */
+    private int neighbour(int cell, int direction) {
+        int width = map.getWidth();
+        int x = cell % width;
+        int y = cell / width;
+        int next = switch (direction) {
+            case 0 -> y > 0 ? cell - width : -1;
+            case 1 -> x > 0 ? cell - 1 : -1;
+            case 2 -> y < map.getHeight() - 1 ? cell + width : -1;
+            default -> x < width - 1 ? cell + 1 : -1;
+        };
+        return next >= 0 && map.isOpen(next) ? next : -1;
+    }
+
+    /**
+     * Finds the node of a cell with a binary search over the node cells.
+     *
+     * @param cell The flat index of a node.
+     * @return The node number of the cell.
+     */
+    private int nodeOf(int cell) {
+        return Arrays.binarySearch(nodeCells, cell);
+    }
+
+    /**
+     * Finds a cell in a corridor.
+     *
+     * @param corridor The cells along a corridor.
+     * @param cell The flat index of the cell to find.
+     * @return The position of the cell in the corridor, or -1 if it isn't in it.
+     */
+    private static int indexOf(int[] corridor, int cell) {
+        for (int i = 0; i < corridor.length; i++) {
+            if (corridor[i] == cell) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter method for the number of nodes in the graph.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return nodeCells.length;
+    }
+
+    /**
+     * Getter method for the number of edges in the graph, each corridor being counted once in
+     * each direction.
+     *
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeTargets.length;
+    }
+}
@@ -0,0 +1,39 @@
+package solvercore;
+
+import mazecore.MazeContext;
+import playercore.PackedMoveMap;
+
+/**
+ * A solver that searches the junction graph of the move map instead of every cell, so corridors
+ * are crossed in a single step. The graph of the solver's maze context is built the first time it
+ * is solved and kept by the context, so later solves of the same maze skip building it. Any
+ * other move map has its graph built for that solve only.
+ */
+public class JunctionGraphSolver implements SolverStrategy {
+
+    /** The maze context whose junction graph is reused. */
+    private final MazeContext context;
+
+    /**
+     * Creates a solver that reuses the junction graph of the current maze context.
+     */
+    public JunctionGraphSolver() {
+        this(MazeContext.getCurrent());
+    }
+
+    /**
+     * Creates a solver that reuses the junction graph of the given maze context.
+     *
+     * @param context The maze context whose junction graph is reused.
+     */
+    public JunctionGraphSolver(MazeContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        JunctionGraph graph = context != null && context.getMoveMap() == map
+                ? context.getJunctionGraph() : JunctionGraph.build(map);
+        return graph.shortestPath(start, end);
+    }
+}
@@ -0,0 +1,207 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+/**
+ * A field holding, for every cell that can reach the exit, the move that takes it one step
+ * closer to the exit. It is built with a single breadth first search backwards from the exit,
+ * after which the way out can be found from any cell in constant time per step, without solving
+ * the maze again. Only the next move is stored, not the distance to the exit, so each cell only
+ * takes half a byte.
+ */
+public class NextMoveField {
+
+    /** The value of a cell that can't reach the exit. */
+    private static final int UNREACHABLE = 0;
+
+    /** The value of the exit itself. */
+    private static final int EXIT = 5;
+
+    /** The moves stored in the field, indexed by value, [none, up, left, down, right, none]. */
+    private static final char[] MOVES = {0, 'w', 'a', 's', 'd', 0};
+
+    /** The initial capacity of the ring buffer queue, must be a power of two. */
+    private static final int INITIAL_QUEUE_CAPACITY = 1024;
+
+    /** The move map the field was built from. */
+    private final PackedMoveMap map;
+
+    /** The value of every cell, packed two cells per byte. */
+    private final byte[] field;
+
+    /**
+     * Creates an empty field, where no cell can reach the exit.
+     *
+     * @param map The move map the field is built from.
+     */
+    private NextMoveField(PackedMoveMap map) {
+        this.map = map;
+        this.field = new byte[(map.getCellCount() + 1) >>> 1];
+    }
+
+    /**
+     * Builds the field with a breadth first search backwards from the exit.
+     *
+     * @param map The move map to build the field from.
+     * @param exit The flat index of the exit cell.
+     * @return The field for the given exit.
+     */
+    public static NextMoveField build(PackedMoveMap map, int exit) {
+        NextMoveField nextMoveField = new NextMoveField(map);
+        int width = map.getWidth();
+        int height = map.getHeight();
+        nextMoveField.set(exit, EXIT);
+
+        // A ring buffer queue, grown by doubling whenever it fills up.
+        int[] queue = new int[INITIAL_QUEUE_CAPACITY];
+        int mask = queue.length - 1;
+        int head = 0;
+        int size = 1;
+        queue[0] = exit;
+        int steps = 0;
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) & mask;
+            size--;
+
+            if ((++steps & SolverCancellation.CHECK_MASK) == 0) {
+                SolverCancellation.checkInterrupted();
+            }
+            if (size + 4 > queue.length) {
+                queue = BfsSolver.growQueue(queue, head, size);
+                mask = queue.length - 1;
+                head = 0;
+            }
+
+            int x = current % width;
+            int y = current / width;
+            int tail = (head + size) & mask;
+
+            // Each neighbour reached stores the move back towards the current cell, so the cell
+            // above stores down, the cell to the left stores right, and so on.
+            if (y > 0 && nextMoveField.reach(current - width, 3)) {
+                queue[tail] = current - width;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            if (x > 0 && nextMoveField.reach(current - 1, 4)) {
+                queue[tail] = current - 1;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            if (y < height - 1 && nextMoveField.reach(current + width, 1)) {
+                queue[tail] = current + width;
+                tail = (tail + 1) & mask;
+                size++;
+            }
+            if (x < width - 1 && nextMoveField.reach(current + 1, 2)) {
+                queue[tail] = current + 1;
+                size++;
+            }
+        }
+        return nextMoveField;
+    }
+
+    /**
+     * Stores the move for the cell if it is a valid move that hasn't been reached yet.
+     *
+     * @param cell The flat index of the cell.
+     * @param value The value of the move towards the exit.
+     * @return True if the cell was newly reached and should be queued, false otherwise.
+     */
+    private boolean reach(int cell, int value) {
+        if (get(cell) == UNREACHABLE && map.isOpen(cell)) {
+            set(cell, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the value of a cell from the packed field.
+     *
+     * @param cell The flat index of the cell.
+     * @return The value of the cell.
+     */
+    private int get(int cell) {
+        return (field[cell >>> 1] >>> ((cell & 1) << 2)) & 0xF;
+    }
+
+    /**
+     * Sets the value of a cell in the packed field.
+     *
+     * @param cell The flat index of the cell.
+     * @param value The value of the cell.
+     */
+    private void set(int cell, int value) {
+        int shift = (cell & 1) << 2;
+        field[cell >>> 1] = (byte) ((field[cell >>> 1] & ~(0xF << shift)) | (value << shift));
+    }
+
+    /**
+     * Gets the move that takes the given cell one step closer to the exit.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The move as 'w', 'a', 's' or 'd', or 0 if the cell is the exit or can't reach it.
+     */
+    public char nextMove(int x, int y) {
+        if (x < 0 || x >= map.getWidth() || y < 0 || y >= map.getHeight()) {
+            return 0;
+        }
+        return MOVES[get(map.index(x, y))];
+    }
+
+    /**
+     * Checks if the exit can be reached from the given cell.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return True if the exit can be reached, false otherwise.
+     */
+    public boolean canReachExit(int x, int y) {
+        return x >= 0 && x < map.getWidth() && y >= 0 && y < map.getHeight()
+                && get(map.index(x, y)) != UNREACHABLE;
+    }
+
+    /**
+     * Follows the field from the given cell to the exit.
+     *
+     * @param x The x coordinate of the cell to start from.
+     * @param y The y coordinate of the cell to start from.
+     * @return The flat indices of every cell on the way to the exit, inclusive, or an empty
+     *         array if the exit can't be reached.
+     */
+    public int[] pathFrom(int x, int y) {
+        if (!canReachExit(x, y)) {
+            return new int[0];
+        }
+        // Counts the steps first, so the path array is created at the right size.
+        int length = 1;
+        for (int cell = map.index(x, y); get(cell) != EXIT; cell = step(cell)) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = map.index(x, y);
+        for (int i = 1; i < length; i++) {
+            path[i] = step(path[i - 1]);
+        }
+        return path;
+    }
+
+    /**
+     * Moves one step from the given cell towards the exit.
+     *
+     * @param cell The flat index of a cell that can reach the exit, other than the exit.
+     * @return The flat index of the next cell.
+     */
+    private int step(int cell) {
+        return switch (get(cell)) {
+            case 1 -> cell - map.getWidth();
+            case 2 -> cell - 1;
+            case 3 -> cell + map.getWidth();
+            default -> cell + 1;
+        };
+    }
+}
@@ -0,0 +1,388 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * A level-synchronous breadth first search that splits every level of the frontier across the
+ * workers of a fork/join pool, for mazes too large to search quickly on one core.
+ * <p>
+ * Each level runs in three passes over chunks of the frontier. First every worker claims the
+ * unvisited neighbours of its chunk, keeping the lowest (frontier position, direction) claim on
+ * each cell with compare-and-set. Then every chunk collects, in order, the neighbours it won,
+ * which are exactly the cells the sequential search would have queued, in the same order.
+ * Finally the winners record their parents and are marked in a packed visited bitmap with
+ * compare-and-set. The path found is therefore always identical to the one BfsSolver finds.
+ * </p>
+ * <p>
+ * Mazes with fewer cells than the threshold are handed straight to BfsSolver, as are levels
+ * small enough to fit in a single chunk, which are processed on the calling thread.
+ * </p>
+ */
+public class ParallelBfsSolver implements SolverStrategy {
+
+    /** The default number of cells below which the sequential solver is used. */
+    public static final int DEFAULT_THRESHOLD = 1 << 22;
+
+    /** The number of frontier cells handled by each worker task. */
+    private static final int CHUNK_SIZE = 4096;
+
+    /** The number of bits in each word of the visited bitmap, as a shift (2^6 = 64). */
+    private static final int WORD_SHIFT = 6;
+
+    /** The number of cells below which the sequential solver is used. */
+    private final int threshold;
+
+    /** The pool the worker tasks run in. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a parallel solver using the common fork/join pool and the default threshold.
+     */
+    public ParallelBfsSolver() {
+        this(DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a parallel solver.
+     *
+     * @param threshold The number of cells below which the sequential solver is used.
+     * @param pool The pool the worker tasks run in.
+     */
+    public ParallelBfsSolver(int threshold, ForkJoinPool pool) {
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    @Override
+    public int[] solve(PackedMoveMap map, int start, int end) {
+        // Claims are numbered four per frontier cell, so very large maps must stay sequential.
+        if (map.getCellCount() < threshold || map.getCellCount() > Integer.MAX_VALUE / 4) {
+            return new BfsSolver().solve(map, start, end);
+        }
+        return new Search(map, start, end).run();
+    }
+
+    /**
+     * The state of a single parallel search.
+     */
+    private class Search {
+        /** The move map being searched. */
+        private final PackedMoveMap map;
+
+        /** The flat index of the start cell. */
+        private final int start;
+
+        /** The flat index of the end cell. */
+        private final int end;
+
+        /** The width of the map. */
+        private final int width;
+
+        /** The height of the map. */
+        private final int height;
+
+        /** The packed visited bitmap, one bit per cell. */
+        private final AtomicLongArray visited;
+
+        /**
+         * For visited cells the cell they were reached from, for cells claimed in the current
+         * level the lowest claim plus one, and zero for cells not claimed yet.
+         */
+        private final AtomicIntegerArray links;
+
+        /** The cells in the current level, in the order the sequential search would queue them. */
+        private int[] frontier;
+
+        /** The number of cells in the current level. */
+        private int frontierSize;
+
+        /** The cells each chunk won in the current level, in order. */
+        private int[][] chunkCells = new int[0][];
+
+        /** The parents of the cells each chunk won in the current level. */
+        private int[][] chunkParents = new int[0][];
+
+        /** The number of cells each chunk won in the current level. */
+        private int[] chunkSizes = new int[0];
+
+        /** Whether the end was won in the current level. */
+        private volatile boolean endFound;
+
+        Search(PackedMoveMap map, int start, int end) {
+            this.map = map;
+            this.start = start;
+            this.end = end;
+            this.width = map.getWidth();
+            this.height = map.getHeight();
+            this.visited = new AtomicLongArray((map.getCellCount() + 63) >>> WORD_SHIFT);
+            this.links = new AtomicIntegerArray(map.getCellCount());
+        }
+
+        /**
+         * Runs the search level by level until the end is found or the frontier is empty.
+         *
+         * @return The flat indices of the quickest path, or an empty array if it is unsolvable.
+         */
+        private int[] run() {
+            if (start == end) {
+                return new int[]{start};
+            }
+            markVisited(start);
+            links.set(start, start);
+            frontier = new int[]{start};
+            frontierSize = 1;
+
+            while (frontierSize > 0) {
+                SolverCancellation.checkInterrupted();
+                int chunkCount = (frontierSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                prepareChunks(chunkCount);
+
+                forEachChunk(chunkCount, this::claimNeighbours);
+                forEachChunk(chunkCount, this::collectWinners);
+                forEachChunk(chunkCount, this::commitWinners);
+
+                if (endFound) {
+                    return tracePath();
+                }
+                concatenateChunks(chunkCount);
+            }
+
+            // If the frontier empties without reaching the end, the maze is unsolvable.
+            return new int[0];
+        }
+
+        /**
+         * Walks the links back from the end to the start and returns the path in order.
+         *
+         * @return The flat indices of the path, from start to end inclusive.
+         */
+        private int[] tracePath() {
+            int length = 1;
+            for (int cell = end; cell != start; cell = links.get(cell)) {
+                length++;
+            }
+            int[] path = new int[length];
+            int cell = end;
+            for (int i = length - 1; i >= 0; i--) {
+                path[i] = cell;
+                cell = links.get(cell);
+            }
+            return path;
+        }
+
+        /**
+         * Runs the work for every chunk, in the pool if there is more than one chunk.
+         *
+         * @param chunkCount The number of chunks in the current level.
+         * @param work The work to run for each chunk, given the chunk number.
+         */
+        private void forEachChunk(int chunkCount, IntConsumer work) {
+            if (chunkCount == 1) {
+                work.accept(0);
+            } else {
+                pool.invoke(new ChunkTask(work, 0, chunkCount));
+            }
+        }
+
+        /**
+         * The first pass, claims every unvisited neighbour of the chunk with the claim number
+         * (frontier position * 4 + direction + 1), keeping the lowest claim on each cell.
+         *
+         * @param chunk The chunk number.
+         */
+        private void claimNeighbours(int chunk) {
+            int last = Math.min(frontierSize, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < last; i++) {
+                int current = frontier[i];
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = neighbour(current, direction);
+                    if (neighbour < 0 || isVisited(neighbour) || !map.isOpen(neighbour)) {
+                        continue;
+                    }
+                    int claim = i * 4 + direction + 1;
+                    int held = links.get(neighbour);
+                    while ((held == 0 || claim < held)
+                            && !links.compareAndSet(neighbour, held, claim)) {
+                        held = links.get(neighbour);
+                    }
+                }
+            }
+        }
+
+        /**
+         * The second pass, collects the neighbours whose lowest claim belongs to the chunk, in
+         * the order the sequential search would have queued them.
+         *
+         * @param chunk The chunk number.
+         */
+        private void collectWinners(int chunk) {
+            int size = 0;
+            int last = Math.min(frontierSize, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < last; i++) {
+                int current = frontier[i];
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = neighbour(current, direction);
+                    if (neighbour < 0 || isVisited(neighbour)
+                            || links.get(neighbour) != i * 4 + direction + 1) {
+                        continue;
+                    }
+                    if (size == chunkCells[chunk].length) {
+                        chunkCells[chunk] = Arrays.copyOf(chunkCells[chunk], size << 1);
+                        chunkParents[chunk] = Arrays.copyOf(chunkParents[chunk], size << 1);
+                    }
+                    chunkCells[chunk][size] = neighbour;
+                    chunkParents[chunk][size] = current;
+                    size++;
+                    if (neighbour == end) {
+                        endFound = true;
+                    }
+                }
+            }
+            chunkSizes[chunk] = size;
+        }
+
+        /**
+         * The third pass, replaces the claims of the chunk's winners with their parents and
+         * marks them as visited.
+         *
+         * @param chunk The chunk number.
+         */
+        private void commitWinners(int chunk) {
+            int[] cells = chunkCells[chunk];
+            int[] parents = chunkParents[chunk];
+            for (int i = 0; i < chunkSizes[chunk]; i++) {
+                links.set(cells[i], parents[i]);
+                markVisited(cells[i]);
+            }
+        }
+
+        /**
+         * Makes sure there is an output buffer for every chunk of the current level.
+         *
+         * @param chunkCount The number of chunks in the current level.
+         */
+        private void prepareChunks(int chunkCount) {
+            if (chunkCells.length < chunkCount) {
+                int oldCount = chunkCells.length;
+                chunkCells = Arrays.copyOf(chunkCells, chunkCount);
+                chunkParents = Arrays.copyOf(chunkParents, chunkCount);
+                chunkSizes = Arrays.copyOf(chunkSizes, chunkCount);
+                for (int i = oldCount; i < chunkCount; i++) {
+                    chunkCells[i] = new int[CHUNK_SIZE];
+                    chunkParents[i] = new int[CHUNK_SIZE];
+                }
+            }
+        }
+
+        /**
+         * Joins the winners of every chunk, in chunk order, into the next frontier.
+         *
+         * @param chunkCount The number of chunks in the current level.
+         */
+        private void concatenateChunks(int chunkCount) {
+            int total = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                total += chunkSizes[i];
+            }
+            int[] next = new int[total];
+            int offset = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                System.arraycopy(chunkCells[i], 0, next, offset, chunkSizes[i]);
+                offset += chunkSizes[i];
+            }
+            frontier = next;
+            frontierSize = total;
+        }
+
+        /**
+         * Gets the neighbour of a cell in the given direction.
+         *
+         * @param cell The flat index of the cell.
+         * @param direction The direction, 0 to 3 for [up, left, down, right].
+         * @return The flat index of the neighbour, or -1 if it is outside the map.
+         */
+        private int neighbour(int cell, int direction) {
+            int x = cell % width;
+            int y = cell / width;
+            return switch (direction) {
+                case 0 -> y > 0 ? cell - width : -1;
+                case 1 -> x > 0 ? cell - 1 : -1;
+                case 2 -> y < height - 1 ? cell + width : -1;
+                default -> x < width - 1 ? cell + 1 : -1;
+            };
+        }
+
+        /**
+         * Checks the visited bitmap for a cell.
+         *
+         * @param cell The flat index of the cell.
+         * @return True if the cell has been visited, false otherwise.
+         */
+        private boolean isVisited(int cell) {
+            return (visited.get(cell >>> WORD_SHIFT) & (1L << cell)) != 0;
+        }
+
+        /**
+         * Sets the bit of a cell in the visited bitmap, retrying if another worker changes the
+         * same word at the same time.
+         *
+         * @param cell The flat index of the cell.
+         */
+        private void markVisited(int cell) {
+            int word = cell >>> WORD_SHIFT;
+            long bit = 1L << cell;
+            long held = visited.get(word);
+            while (!visited.compareAndSet(word, held, held | bit)) {
+                held = visited.get(word);
+            }
+        }
+    }
+
+    /**
+     * A fork/join task that runs some work for a range of chunks, splitting the range in half
+     * until each task has a single chunk.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        /** The version of the task's serialized form. */
+        private static final long serialVersionUID = 1L;
+
+        /** The work to run for each chunk, given the chunk number. */
+        private final transient IntConsumer work;
+
+        /** The first chunk of the range, inclusive. */
+        private final int from;
+
+        /** The last chunk of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Creates a task that runs the given work for a range of chunks.
+         *
+         * @param work The work to run for each chunk.
+         * @param from The first chunk of the range, inclusive.
+         * @param to The last chunk of the range, exclusive.
+         */
+        ChunkTask(IntConsumer work, int from, int to) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                work.accept(from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(work, from, middle), new ChunkTask(work, middle, to));
+            }
+        }
+    }
+}
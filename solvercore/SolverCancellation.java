@@ -0,0 +1,25 @@
+package solvercore;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A helper used by the solver strategies to stop searching when the thread running them is
+ * interrupted, for example when an asynchronous solve is cancelled or times out.
+ */
+final class SolverCancellation {
+
+    /** The mask used to only check for interruption once every 16384 steps. */
+    static final int CHECK_MASK = (1 << 14) - 1;
+
+    private SolverCancellation() {
+    }
+
+    /**
+     * Throws a CancellationException if the current thread has been interrupted.
+     */
+    static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solving the maze was cancelled.");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package solvercore;
+
+import playercore.PackedMoveMap;
+
+/**
+ * A strategy for finding the quickest path between two cells of a packed move map.
+ * MazeSolver delegates to a SolverStrategy, so the search algorithm can be swapped without
+ * changing how the solution is played back.
+ * <p>
+ * Strategies check regularly whether the thread running them has been interrupted, and if so
+ * stop searching by throwing a {@link java.util.concurrent.CancellationException}.
+ * </p>
+ */
+public interface SolverStrategy {
+
+    /**
+     * Finds the quickest path between two cells.
+     *
+     * @param map The move map to search.
+     * @param start The flat index of the start cell.
+     * @param end The flat index of the end cell.
+     * @return The flat indices of every cell on the quickest path, from start to end inclusive,
+     *         or an empty array if the end can't be reached.
+     */
+    int[] solve(PackedMoveMap map, int start, int end);
+}